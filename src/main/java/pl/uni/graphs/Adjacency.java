@@ -0,0 +1,27 @@
+package pl.uni.graphs;
+
+//Read-only adjacency that the primitive traversals run on (CompactGraph, CompressedGraph).
+public interface Adjacency {
+
+    int nodeCount();
+
+    //Returns a new cursor; reuse it across nodes instead of creating one per node.
+    Cursor cursor();
+
+    //Sequential iterator over one node's neighbours: reset(u), then next() while hasNext().
+    //save/restore let one cursor be parked and resumed, e.g. once per DFS stack frame.
+    interface Cursor {
+        //Number of longs save() writes.
+        int STATE_WORDS = 2;
+
+        void reset(int u);
+        boolean hasNext();
+        int next();
+        //Weight of the arc to the neighbour last returned by next().
+        double weight();
+        //Writes the iteration state to state[at .. at+STATE_WORDS).
+        void save(long[] state, int at);
+        //Continues the iteration saved at state[at].
+        void restore(long[] state, int at);
+    }
+}
@@ -3,7 +3,6 @@ package pl.uni.graphs;
 import org.graphstream.ui.view.Viewer;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
-import org.graphstream.graph.implementations.Graphs;
 
 /**
  * Main application class executing all Lab 2 exercises sequentially.
@@ -24,10 +23,15 @@ public class App {
         System.setProperty("java.awt.headless", "false");
         System.setProperty("org.graphstream.ui", "swing");
 
+        // Parse every input once; later exercises get private copies of the cached graphs
+        GraphRepository repo = new GraphRepository();
+        repo.prefetch("dgs/firstgraphlab2.dgs", "dgs/gridvonneumann_30.dgs", "dgs/gridvaluated_30_120.dgs",
+                "dgs/gridvaluated_10_220.dgs", "dgs/gridvaluated_10_12.dgs");
 
         //  Exercise 1
         System.out.println("\n--- Exercise 1 on firstgraphlab2.dgs ---");
-        Graph g0 = Tools.readGraph("dgs/firstgraphlab2.dgs");
+        Graph g0 = repo.load("dgs/firstgraphlab2.dgs");
+        repo.release("dgs/firstgraphlab2.dgs");
         g0.setAttribute("ui.title", "Exercise 1");
         Viewer v0 = g0.display(true);
         v0.setCloseFramePolicy(Viewer.CloseFramePolicy.HIDE_ONLY);
@@ -55,7 +59,8 @@ public class App {
         // Exercise 2
         System.out.println("\n--- Exercise 2 ---");
         //using gridvonneumann_30.dgs instead of completegrid_10.gds - couldn't find this file
-        Graph g1 = Tools.readGraph("dgs/gridvonneumann_30.dgs");
+        Graph g1 = repo.load("dgs/gridvonneumann_30.dgs");
+        repo.release("dgs/gridvonneumann_30.dgs");
 
         g1.setAttribute("ui.title", "Exercise 2");
         Viewer v1 = g1.display();
@@ -85,7 +90,7 @@ public class App {
 
         // Exercise 3
         System.out.println("\n--- Exercise 3 on gridvaluated_30_120.dgs ---");
-        Graph g2a = Tools.readGraph("dgs/gridvaluated_30_120.dgs");
+        Graph g2a = repo.load("dgs/gridvaluated_30_120.dgs");
         g2a.setAttribute("ui.title", "Exercise 3");
 
         Viewer v2a = g2a.display();
@@ -182,7 +187,8 @@ public class App {
         """;
 
         // ---------- (A) gridvaluated_10_220.dgs  ----------
-        Graph g4a = Tools.readGraph("dgs/gridvaluated_10_220.dgs");
+        Graph g4a = repo.load("dgs/gridvaluated_10_220.dgs");
+        repo.release("dgs/gridvaluated_10_220.dgs");
         g4a.setAttribute("ui.title", "Exercise 4 – Dijkstra (2:20) on 10x10");
         var v4a = g4a.display(false);
         v4a.setCloseFramePolicy(org.graphstream.ui.view.Viewer.CloseFramePolicy.HIDE_ONLY);
@@ -214,7 +220,8 @@ public class App {
         }
 
         // ---------- (B) gridvaluated_10_12.dgs : ”(1:2)” ----------
-        Graph g4b = Tools.readGraph("dgs/gridvaluated_10_12.dgs");
+        Graph g4b = repo.load("dgs/gridvaluated_10_12.dgs");
+        repo.release("dgs/gridvaluated_10_12.dgs");
         g4b.setAttribute("ui.title", "Exercise 4 – Dijkstra (1:2) on 10x10");
         var v4b = g4b.display(false);
         v4b.setCloseFramePolicy(org.graphstream.ui.view.Viewer.CloseFramePolicy.HIDE_ONLY);
@@ -243,12 +250,12 @@ public class App {
         }
 
         // --- Exercise 5 : Diameter & Radius
-        Graph g5 = Tools.readGraph("dgs/gridvaluated_30_120.dgs");
+        Graph g5 = repo.load("dgs/gridvaluated_30_120.dgs");
         var v5 = g5.display(false);
         v5.setCloseFramePolicy(org.graphstream.ui.view.Viewer.CloseFramePolicy.HIDE_ONLY);
 
-        // Compute eccentricity for all nodes and derive diameter & radius
-        TraversalAlgorithms.DR dr = TraversalAlgorithms.computeEccentricities(g5);
+        // Compute eccentricity for all nodes and derive diameter & radius (reused across runs while the DGS is unchanged)
+        TraversalAlgorithms.DR dr = TraversalAlgorithms.computeEccentricities(g5, ResultCache.defaultCache());
         System.out.printf("[Ex5] diameter=%.2f, radius=%.2f%n", dr.diameter, dr.radius);
 
         // Prepare heatmap visualization
@@ -284,7 +291,7 @@ public class App {
         """;
 
         // (A) BFS tree
-        Graph g6b = Tools.readGraph("dgs/gridvaluated_30_120.dgs");
+        Graph g6b = repo.load("dgs/gridvaluated_30_120.dgs");
         var v6b = g6b.display(false);
         v6b.setCloseFramePolicy(org.graphstream.ui.view.Viewer.CloseFramePolicy.HIDE_ONLY);
         g6b.setAttribute("ui.title", "Exercise 6 — BFS spanning tree");
@@ -302,7 +309,8 @@ public class App {
         }
 
         // (B) DFS tree
-        Graph g6d = Tools.readGraph("dgs/gridvaluated_30_120.dgs");
+        Graph g6d = repo.load("dgs/gridvaluated_30_120.dgs");
+        repo.close(); // last input loaded: drop the remaining master
         var v6d = g6d.display(false);
         v6d.setCloseFramePolicy(org.graphstream.ui.view.Viewer.CloseFramePolicy.HIDE_ONLY);
         g6d.setAttribute("ui.title", "Exercise 6 — DFS spanning tree");
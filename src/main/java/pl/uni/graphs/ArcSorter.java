@@ -0,0 +1,145 @@
+package pl.uni.graphs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+//External sort of arcs (source, target, weight) by source, like CandidateSorter but keeping every record.
+//Arcs are buffered up to a fixed number of records and spilled as sorted runs into temporary files;
+//finish() returns one ascending stream and may be called again to replay it.
+final class ArcSorter implements AutoCloseable {
+    private final Path dir;
+    private final int capacity;
+    private final int[] source, target;
+    private final double[] weight;
+    private final long[] keys;
+    private final List<Path> runs = new ArrayList<>();
+    private int size;
+    private boolean finished;
+
+    ArcSorter(Path dir, int capacity) {
+        this.dir = dir;
+        this.capacity = capacity;
+        source = new int[capacity];
+        target = new int[capacity];
+        weight = new double[capacity];
+        keys = new long[capacity];
+    }
+
+    void add(int u, int v, double w) throws IOException {
+        if (finished) throw new IllegalStateException("Arcs already sorted");
+        if (size == capacity) spill();
+        source[size] = u; target[size] = v; weight[size] = w;
+        size++;
+    }
+
+    //Stream of all arcs in ascending source order; arcs of one source keep their insertion order.
+    Stream finish() throws IOException {
+        if (!finished) {
+            if (runs.isEmpty()) sortBuffer();
+            else if (size > 0) spill();
+            finished = true;
+        }
+        return runs.isEmpty() ? new MemoryStream() : new MergeStream();
+    }
+
+    // Sorts the buffer by source; the slot in the low bits keeps the sort stable
+    private void sortBuffer() {
+        for (int i = 0; i < size; i++) keys[i] = ((long) source[i] << 32) | i;
+        Arrays.sort(keys, 0, size);
+    }
+
+    private void spill() throws IOException {
+        sortBuffer();
+        Path run = Files.createTempFile(dir, "arcs", ".bin");
+        runs.add(run);
+        try (BlockIO.Writer w = new BlockIO.Writer(run)) {
+            w.putInt(size);
+            for (int i = 0; i < size; i++) {
+                int slot = (int) keys[i];
+                w.putInt(source[slot]); w.putInt(target[slot]); w.putDouble(weight[slot]);
+            }
+        }
+        size = 0;
+    }
+
+    //Deletes the spilled runs.
+    @Override
+    public void close() throws IOException {
+        for (Path p : runs) Files.deleteIfExists(p);
+        runs.clear();
+        size = 0;
+    }
+
+    //Cursor over sorted arcs: call advance() until it returns false.
+    abstract static class Stream implements AutoCloseable {
+        int source, target;
+        double weight;
+        abstract boolean advance() throws IOException;
+        @Override public void close() throws IOException {}
+    }
+
+    private final class MemoryStream extends Stream {
+        private int i;
+        boolean advance() {
+            if (i >= size) return false;
+            int slot = (int) keys[i++];
+            source = ArcSorter.this.source[slot];
+            target = ArcSorter.this.target[slot];
+            weight = ArcSorter.this.weight[slot];
+            return true;
+        }
+    }
+
+    // k-way merge of the spilled runs; ties go to the earlier run, so insertion order is kept
+    private final class MergeStream extends Stream {
+        private final PriorityQueue<Run> heads = new PriorityQueue<>((a, b) ->
+                a.source != b.source ? Integer.compare(a.source, b.source) : Integer.compare(a.index, b.index));
+        private final List<Run> open = new ArrayList<>();
+
+        MergeStream() throws IOException {
+            for (int i = 0; i < runs.size(); i++) {
+                Run r = new Run(runs.get(i), i);
+                open.add(r);
+                if (r.advance()) heads.add(r);
+            }
+        }
+
+        boolean advance() throws IOException {
+            if (heads.isEmpty()) return false;
+            Run r = heads.poll();
+            source = r.source; target = r.target; weight = r.weight;
+            if (r.advance()) heads.add(r);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Run r : open) r.in.close();
+        }
+    }
+
+    private static final class Run {
+        final BlockIO.Reader in;
+        final int index;
+        int remaining, source, target;
+        double weight;
+
+        Run(Path p, int index) throws IOException {
+            in = new BlockIO.Reader(p);
+            this.index = index;
+            remaining = in.getInt();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            source = in.getInt(); target = in.getInt(); weight = in.getDouble();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package pl.uni.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+//Betweenness centrality with Brandes' algorithm, parallelised over source nodes.
+//Each thread keeps its own dependency arrays; partial scores are summed at the end.
+//Weighted mode runs Dijkstra per source and requires finite, strictly positive edge weights.
+//Weighted path lengths are compared with a relative tolerance, so ties survive rounding
+//(0.1 + 0.2 and 0.3 count as the same distance).
+public class Betweenness {
+
+    // Relative tolerance for comparing weighted path lengths
+    static final double EPS = 1e-9;
+
+    //Exact betweenness, O(n*m) unweighted and O(n*m*log n) weighted.
+    public static double[] exact(CompactGraph g, boolean weighted) {
+        if (weighted) checkWeights(g);
+        int[] sources = new int[g.nodeCount()];
+        for (int i = 0; i < sources.length; i++) sources[i] = i;
+        return run(g, weighted, sources, 1.0);
+    }
+
+    //Approximate betweenness from k distinct sources drawn with a seeded RNG, scaled by n/k.
+    public static double[] approximate(CompactGraph g, boolean weighted, int k, long seed) {
+        int n = g.nodeCount();
+        if (k >= n) return exact(g, weighted);
+        if (weighted) checkWeights(g);
+
+        // partial Fisher-Yates: the first k slots become the sample
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        Random rng = new Random(seed);
+        for (int i = 0; i < k; i++) {
+            int j = i + rng.nextInt(n - i);
+            int t = perm[i]; perm[i] = perm[j]; perm[j] = t;
+        }
+        return run(g, weighted, Arrays.copyOf(perm, k), (double) n / k);
+    }
+
+    //Number of sampled sources so that, with probability 1 - delta, every score divided by
+    //n*(n-2) is within epsilon of the exact value (Hoeffding bound plus union bound over nodes).
+    public static int samplesFor(int n, double epsilon, double delta) {
+        if (epsilon <= 0 || delta <= 0 || delta >= 1)
+            throw new IllegalArgumentException("Need epsilon > 0 and 0 < delta < 1");
+        double k = Math.log(2.0 * n / delta) / (2 * epsilon * epsilon);
+        return (int) Math.min(n, Math.ceil(k));
+    }
+
+    //Stores scores as "betweenness" and colours nodes blue→red, like applyEccentricityHeatmap.
+    public static void applyHeatmap(Graph g, CompactGraph cg, double[] scores) {
+        applyHeatmap(g, cg, scores, false);
+    }
+
+    //Same, optionally labelling every node with its id and score.
+    public static void applyHeatmap(Graph g, CompactGraph cg, double[] scores, boolean labels) {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (double s : scores) { min = Math.min(min, s); max = Math.max(max, s); }
+
+        StyleBatch.declareHeatClasses(g);
+        StyleBatch batch = new StyleBatch();
+        for (int i = 0; i < scores.length; i++) {
+            Node v = cg.node(g, i);
+            v.setAttribute("betweenness", scores[i]);
+            batch.setClass(v, StyleBatch.heatClass(scores[i], min, max));
+            if (labels) batch.set(v, "ui.label", String.format("%s\nBC=%.2f", v.getId(), scores[i]));
+        }
+        batch.flush();
+    }
+
+    // Shortest-path counting is only sound for positive weights; unparsable ones would silently count as 1.0
+    private static void checkWeights(CompactGraph g) {
+        if (g.unparsedWeights > 0)
+            throw new IllegalArgumentException(g.unparsedWeights + " arcs have a weight attribute that is not a number");
+        for (int u = 0; u < g.nodeCount(); u++) {
+            for (int p = g.offsets[u]; p < g.offsets[u + 1]; p++) {
+                double w = g.weights[p];
+                if (!(w > 0) || Double.isInfinite(w))
+                    throw new IllegalArgumentException("Edge " + g.id(u) + "-" + g.id(g.targets[p])
+                            + " has weight " + w + "; betweenness needs finite positive weights");
+            }
+        }
+    }
+
+    //True when a and b are equal up to the relative tolerance EPS.
+    static boolean sameLength(double a, double b) {
+        if (a == b) return true;
+        if (Double.isInfinite(a) || Double.isInfinite(b)) return false;
+        return Math.abs(a - b) <= EPS * Math.max(Math.abs(a), Math.abs(b));
+    }
+
+    // Runs Brandes from the given sources on all cores and sums the per-thread scores
+    private static double[] run(CompactGraph g, boolean weighted, int[] sources, double scale) {
+        int n = g.nodeCount();
+        double[] total = new double[n];
+        if (sources.length == 0) return total;
+
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), sources.length);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        try {
+            List<Future<double[]>> parts = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                parts.add(pool.submit(() -> {
+                    Worker w = new Worker(g, weighted);
+                    int i;
+                    while ((i = next.getAndIncrement()) < sources.length) w.accumulate(sources[i]);
+                    return w.scores;
+                }));
+            }
+            for (Future<double[]> f : parts) {
+                double[] part = f.get();
+                for (int v = 0; v < n; v++) total[v] += part[v];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Betweenness computation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Betweenness computation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        // every undirected pair is counted once from each endpoint
+        double factor = scale / 2.0;
+        for (int v = 0; v < n; v++) total[v] *= factor;
+        return total;
+    }
+
+    // Per-thread state for single-source shortest paths and dependency accumulation
+    private static class Worker {
+        final CompactGraph g;
+        final boolean weighted;
+        final double[] scores, dist, sigma, delta;
+        final int[] order;      // nodes in non-decreasing distance (also the BFS queue)
+        final NodeHeap heap;
+
+        Worker(CompactGraph g, boolean weighted) {
+            int n = g.nodeCount();
+            this.g = g;
+            this.weighted = weighted;
+            scores = new double[n];
+            dist = new double[n];
+            sigma = new double[n];
+            delta = new double[n];
+            order = new int[n];
+            heap = weighted ? new NodeHeap(n) : null;
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        }
+
+        void accumulate(int s) {
+            int[] off = g.offsets, tgt = g.targets;
+            double[] wt = g.weights;
+
+            dist[s] = 0.0;
+            sigma[s] = 1.0;
+            int count = weighted ? dijkstra(s) : bfs(s);
+
+            // back-propagate dependencies; predecessors are re-derived from dist
+            for (int i = count - 1; i >= 0; i--) {
+                int w = order[i];
+                double coeff = (1.0 + delta[w]) / sigma[w];
+                for (int p = off[w]; p < off[w + 1]; p++) {
+                    int v = tgt[p];
+                    boolean pred = weighted ? sameLength(dist[v] + wt[p], dist[w]) : dist[v] == dist[w] - 1.0;
+                    if (pred) delta[v] += sigma[v] * coeff;
+                }
+                if (w != s) scores[w] += delta[w];
+            }
+
+            // reset only what this source touched
+            for (int i = 0; i < count; i++) {
+                int v = order[i];
+                dist[v] = Double.POSITIVE_INFINITY;
+                sigma[v] = 0.0;
+                delta[v] = 0.0;
+            }
+        }
+
+        int bfs(int s) {
+            int[] off = g.offsets, tgt = g.targets;
+            int head = 0, count = 0;
+            order[count++] = s;
+            while (head < count) {
+                int u = order[head++];
+                double du = dist[u] + 1.0;
+                for (int p = off[u]; p < off[u + 1]; p++) {
+                    int v = tgt[p];
+                    if (dist[v] == Double.POSITIVE_INFINITY) {
+                        dist[v] = du;
+                        order[count++] = v;
+                    }
+                    if (dist[v] == du) sigma[v] += sigma[u];
+                }
+            }
+            return count;
+        }
+
+        int dijkstra(int s) {
+            int[] off = g.offsets, tgt = g.targets;
+            double[] wt = g.weights;
+            int count = 0;
+            heap.clear();
+            heap.push(s, 0.0);
+            while (!heap.isEmpty()) {
+                double d = heap.peekKey();
+                int u = heap.pop();
+                if (d > dist[u]) continue; // stale entry
+                order[count++] = u;
+                for (int p = off[u]; p < off[u + 1]; p++) {
+                    int v = tgt[p];
+                    double alt = d + wt[p];
+                    if (sameLength(alt, dist[v])) {
+                        sigma[v] += sigma[u];
+                    } else if (alt < dist[v]) {
+                        dist[v] = alt;
+                        sigma[v] = sigma[u];
+                        heap.push(v, alt);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pl.uni.graphs;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Buffered sequential readers and writers over file channels, used by the out-of-core code.
+//All I/O happens in 1 MB blocks, so the disk only ever sees large sequential transfers.
+final class BlockIO {
+    static final int BUFFER = 1 << 20;
+
+    //Writes values one after another starting at a byte position of a channel.
+    static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final boolean ownsChannel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+        private long pos;
+
+        //Creates (or truncates) a file and writes it from the start.
+        Writer(Path path) throws IOException {
+            this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING), 0L, true);
+        }
+
+        //Writes into a region of a channel owned by the caller.
+        Writer(FileChannel channel, long pos) { this(channel, pos, false); }
+
+        private Writer(FileChannel channel, long pos, boolean ownsChannel) {
+            this.channel = channel; this.pos = pos; this.ownsChannel = ownsChannel;
+        }
+
+        void putInt(int v) throws IOException { room(4); buf.putInt(v); }
+        void putLong(long v) throws IOException { room(8); buf.putLong(v); }
+        void putDouble(double v) throws IOException { room(8); buf.putDouble(v); }
+
+        private void room(int bytes) throws IOException { if (buf.remaining() < bytes) flush(); }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) pos += channel.write(buf, pos);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            if (ownsChannel) channel.close();
+        }
+    }
+
+    //Reads values one after another from the start of a file.
+    static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+
+        Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            buf.limit(0);
+        }
+
+        int getInt() throws IOException { need(4); return buf.getInt(); }
+        long getLong() throws IOException { need(8); return buf.getLong(); }
+        double getDouble() throws IOException { need(8); return buf.getDouble(); }
+
+        private void need(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return;
+            buf.compact();
+            while (buf.position() < bytes) {
+                if (channel.read(buf) < 0) throw new EOFException("Unexpected end of block file");
+            }
+            buf.flip();
+        }
+
+        @Override
+        public void close() throws IOException { channel.close(); }
+    }
+}
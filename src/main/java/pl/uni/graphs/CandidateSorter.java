@@ -0,0 +1,155 @@
+package pl.uni.graphs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+//External sort of relaxation candidates (node, parent, dist) by node.
+//Candidates are buffered up to a fixed number of records, reduced to the best one per node,
+//and spilled as sorted runs; finish() merges the runs into one ascending stream.
+final class CandidateSorter {
+    private final Path dir;
+    private final int capacity;
+    private final int[] node, parent;
+    private final double[] dist;
+    private final long[] keys;
+    private final List<Path> runs = new ArrayList<>();
+    private int size;
+
+    CandidateSorter(Path dir, int capacity) {
+        this.dir = dir;
+        this.capacity = capacity;
+        node = new int[capacity];
+        parent = new int[capacity];
+        dist = new double[capacity];
+        keys = new long[capacity];
+    }
+
+    void add(int v, int from, double d) throws IOException {
+        if (size == capacity) spill();
+        node[size] = v; parent[size] = from; dist[size] = d;
+        size++;
+    }
+
+    //Drops buffered records and forgets spilled runs so the buffers can be reused.
+    void clear() {
+        size = 0;
+        runs.clear();
+    }
+
+    //Sorted stream with at most one record per node (the smallest distance).
+    Stream finish() throws IOException {
+        if (runs.isEmpty()) {
+            sortBuffer();
+            return new MemoryStream();
+        }
+        if (size > 0) spill();
+        return new MergeStream();
+    }
+
+    // Sorts the buffer by node and keeps the minimum per node in keys[0..return)
+    private int sortBuffer() {
+        for (int i = 0; i < size; i++) keys[i] = ((long) node[i] << 32) | i;
+        Arrays.sort(keys, 0, size);
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = (int) keys[i];
+            if (out > 0 && node[(int) keys[out - 1]] == node[slot]) {
+                if (dist[slot] < dist[(int) keys[out - 1]]) keys[out - 1] = keys[i];
+            } else {
+                keys[out++] = keys[i];
+            }
+        }
+        size = out;
+        return out;
+    }
+
+    private void spill() throws IOException {
+        int count = sortBuffer();
+        Path run = dir.resolve("run-" + runs.size() + ".bin");
+        try (BlockIO.Writer w = new BlockIO.Writer(run)) {
+            w.putInt(count);
+            for (int i = 0; i < count; i++) {
+                int slot = (int) keys[i];
+                w.putInt(node[slot]); w.putInt(parent[slot]); w.putDouble(dist[slot]);
+            }
+        }
+        runs.add(run);
+        size = 0;
+    }
+
+    //Cursor over sorted candidates: call advance() until it returns false.
+    abstract static class Stream implements AutoCloseable {
+        int node, parent;
+        double dist;
+        abstract boolean advance() throws IOException;
+        @Override public void close() throws IOException {}
+    }
+
+    private final class MemoryStream extends Stream {
+        private int i;
+        boolean advance() {
+            if (i >= size) return false;
+            int slot = (int) keys[i++];
+            node = CandidateSorter.this.node[slot];
+            parent = CandidateSorter.this.parent[slot];
+            dist = CandidateSorter.this.dist[slot];
+            return true;
+        }
+    }
+
+    // k-way merge of the spilled runs; records for the same node are folded to the minimum
+    private final class MergeStream extends Stream {
+        private final PriorityQueue<Run> heads = new PriorityQueue<>((a, b) -> Integer.compare(a.node, b.node));
+        private final List<Run> open = new ArrayList<>();
+
+        MergeStream() throws IOException {
+            for (Path p : runs) {
+                Run r = new Run(p);
+                open.add(r);
+                if (r.advance()) heads.add(r);
+            }
+        }
+
+        boolean advance() throws IOException {
+            if (heads.isEmpty()) return false;
+            Run r = heads.poll();
+            node = r.node; parent = r.parent; dist = r.dist;
+            if (r.advance()) heads.add(r);
+            while (!heads.isEmpty() && heads.peek().node == node) {
+                Run s = heads.poll();
+                if (s.dist < dist) { parent = s.parent; dist = s.dist; }
+                if (s.advance()) heads.add(s);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Run r : open) r.in.close();
+            for (Path p : runs) Files.deleteIfExists(p);
+        }
+    }
+
+    private static final class Run {
+        final BlockIO.Reader in;
+        int remaining, node, parent;
+        double dist;
+
+        Run(Path p) throws IOException {
+            in = new BlockIO.Reader(p);
+            remaining = in.getInt();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            node = in.getInt(); parent = in.getInt(); dist = in.getDouble();
+            return true;
+        }
+    }
+}
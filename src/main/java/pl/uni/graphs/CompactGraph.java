@@ -0,0 +1,143 @@
+package pl.uni.graphs;
+
+import java.util.Arrays;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+//Immutable CSR (compressed sparse row) snapshot of a GraphStream graph.
+//Neighbours of node i are targets[offsets[i] .. offsets[i+1]) with matching weights.
+//Edges are treated as undirected, like Node.neighborNodes(), so every edge appears in both lists.
+public class CompactGraph implements Adjacency {
+    final String[] ids;
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    final double[] xs, ys;      // node coordinates, NaN when the node has none
+    final int unparsedWeights;  // arcs whose weight attribute did not parse (stored as 1.0)
+
+    CompactGraph(String[] ids, int[] offsets, int[] targets, double[] weights, double[] xs, double[] ys,
+                 int unparsedWeights) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.xs = xs;
+        this.ys = ys;
+        this.unparsedWeights = unparsedWeights;
+    }
+
+    //Takes a snapshot of g; index i corresponds to g.getNode(i), weights come from Tools.weight.
+    public static CompactGraph of(Graph g) {
+        int n = g.getNodeCount();
+        String[] ids = new String[n];
+        int[] offsets = new int[n + 1];
+        double[] xs = new double[n], ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            Node v = g.getNode(i);
+            ids[i] = v.getId();
+            offsets[i + 1] = offsets[i] + v.getDegree();
+            double[] xy = Tools.getXY(v);
+            xs[i] = xy != null ? xy[0] : Double.NaN;
+            ys[i] = xy != null ? xy[1] : Double.NaN;
+        }
+
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int unparsed = 0;
+        for (int i = 0; i < n; i++) {
+            Node v = g.getNode(i);
+            int k = offsets[i];
+            for (int j = 0; j < v.getDegree(); j++) {
+                Edge e = v.getEdge(j);
+                targets[k] = e.getOpposite(v).getIndex();
+                double w = Tools.weight(e, Double.NaN);
+                if (Double.isNaN(w)) { unparsed++; w = 1.0; }
+                weights[k++] = w;
+            }
+        }
+        return new CompactGraph(ids, offsets, targets, weights, xs, ys, unparsed);
+    }
+
+    //Returns a copy where new index u holds old node newToOld[u]; neighbour lists are sorted by new index.
+    public CompactGraph permute(int[] newToOld) {
+        int n = nodeCount();
+        if (newToOld.length != n) throw new IllegalArgumentException("Permutation size " + newToOld.length + " != " + n);
+        int[] oldToNew = inverse(newToOld);
+
+        String[] pIds = new String[n];
+        int[] pOffsets = new int[n + 1];
+        double[] pXs = new double[n], pYs = new double[n];
+        int maxDegree = 0;
+        for (int u = 0; u < n; u++) {
+            int old = newToOld[u];
+            pIds[u] = ids[old];
+            pXs[u] = xs[old];
+            pYs[u] = ys[old];
+            pOffsets[u + 1] = pOffsets[u] + degree(old);
+            maxDegree = Math.max(maxDegree, degree(old));
+        }
+
+        int[] pTargets = new int[targets.length];
+        double[] pWeights = new double[weights.length];
+        long[] keys = new long[maxDegree];
+        for (int u = 0; u < n; u++) {
+            int old = newToOld[u], from = offsets[old], deg = degree(old);
+            // sort the slice by new target index, carrying the original position along
+            for (int j = 0; j < deg; j++) keys[j] = ((long) oldToNew[targets[from + j]] << 32) | j;
+            Arrays.sort(keys, 0, deg);
+            for (int j = 0; j < deg; j++) {
+                int k = pOffsets[u] + j;
+                pTargets[k] = (int) (keys[j] >>> 32);
+                pWeights[k] = weights[from + (int) keys[j]];
+            }
+        }
+        return new CompactGraph(pIds, pOffsets, pTargets, pWeights, pXs, pYs, unparsedWeights);
+    }
+
+    @Override
+    public Cursor cursor() {
+        return new Cursor() {
+            int p, end;
+            public void reset(int u) { p = offsets[u]; end = offsets[u + 1]; }
+            public boolean hasNext() { return p < end; }
+            public int next() { return targets[p++]; }
+            public double weight() { return weights[p - 1]; }
+            public void save(long[] state, int at) { state[at] = p; state[at + 1] = end; }
+            public void restore(long[] state, int at) { p = (int) state[at]; end = (int) state[at + 1]; }
+        };
+    }
+
+    //Inverts a permutation of 0..n-1.
+    static int[] inverse(int[] perm) {
+        int[] inv = new int[perm.length];
+        Arrays.fill(inv, -1);
+        for (int i = 0; i < perm.length; i++) {
+            if (perm[i] < 0 || perm[i] >= perm.length || inv[perm[i]] != -1)
+                throw new IllegalArgumentException("Not a permutation: " + perm[i] + " at " + i);
+            inv[perm[i]] = i;
+        }
+        return inv;
+    }
+
+    @Override
+    public int nodeCount() { return ids.length; }
+
+    //Number of adjacency entries (twice the number of undirected edges).
+    public int arcCount() { return targets.length; }
+
+    public int degree(int u) { return offsets[u + 1] - offsets[u]; }
+
+    public String id(int u) { return ids[u]; }
+
+    //Returns the GraphStream node behind index u.
+    public Node node(Graph g, int u) { return g.getNode(ids[u]); }
+
+    //Reads an integer node attribute of g once into an array indexed like this snapshot.
+    public int[] intValues(Graph g, String key, int def) {
+        int[] out = new int[nodeCount()];
+        for (int u = 0; u < out.length; u++) out[u] = Tools.getInt(node(g, u), key, def);
+        return out;
+    }
+}
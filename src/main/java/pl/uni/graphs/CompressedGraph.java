@@ -0,0 +1,246 @@
+package pl.uni.graphs;
+
+import java.util.Arrays;
+
+//Immutable compressed adjacency (WebGraph style) for graphs too large for SingleGraph or CompactGraph.
+//Each node's sorted neighbour list is stored as varint(degree), zigzag varint of the first
+//neighbour minus the node index, then varint gaps between consecutive neighbours. Weights, if any,
+//are interleaved after each neighbour. Bytes live in fixed-size pages so the total may exceed 2 GB.
+//Inputs that do not fit in heap as a SingleGraph are compressed from an edge stream by ExternalGraphBuilder.
+public class CompressedGraph implements Adjacency {
+
+    //How edge weights are stored: not at all (all 1.0), as varint integers, or as raw floats/doubles.
+    public enum WeightMode { NONE, INTEGER, FLOAT, DOUBLE }
+
+    private static final int PAGE_BITS = 27;                 // 128 MB pages
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final byte[][] pages;
+    private final long[] offsets;                            // byte position of node u's record
+    private final long arcs;
+    private final WeightMode mode;
+
+    private CompressedGraph(byte[][] pages, long[] offsets, long arcs, WeightMode mode) {
+        this.pages = pages; this.offsets = offsets; this.arcs = arcs; this.mode = mode;
+    }
+
+    //Compresses a CompactGraph, picking the cheapest weight mode that stores its weights exactly.
+    public static CompressedGraph of(CompactGraph g) {
+        Builder b = new Builder(g.nodeCount(), weightModeFor(g.weights));
+        for (int u = 0; u < g.nodeCount(); u++)
+            b.add(g.targets, g.weights, g.offsets[u], g.degree(u));
+        return b.build();
+    }
+
+    static WeightMode weightModeFor(double[] weights) {
+        boolean unit = true, integral = true, single = true;
+        for (double w : weights) {
+            if (w != 1.0) unit = false;
+            if (!fitsInteger(w)) integral = false;
+            if (!fitsFloat(w)) single = false;
+        }
+        return weightMode(unit, integral, single);
+    }
+
+    // Cheapest exact mode given whether all weights are 1.0, fit fitsInteger and fit fitsFloat
+    static WeightMode weightMode(boolean unit, boolean integral, boolean single) {
+        return unit ? WeightMode.NONE : integral ? WeightMode.INTEGER : single ? WeightMode.FLOAT : WeightMode.DOUBLE;
+    }
+
+    static boolean fitsInteger(double w) { return w >= 0 && w <= Integer.MAX_VALUE && w == Math.rint(w); }
+
+    // Float round trip is exact (NaN compares unequal, so Double.compare is used)
+    static boolean fitsFloat(double w) { return Double.compare((double) (float) w, w) == 0; }
+
+    @Override
+    public int nodeCount() { return offsets.length - 1; }
+
+    public long arcCount() { return arcs; }
+
+    public long byteSize() { return offsets[offsets.length - 1]; }
+
+    public double bitsPerArc() { return arcs == 0 ? 0.0 : 8.0 * byteSize() / arcs; }
+
+    public WeightMode weightMode() { return mode; }
+
+    public int degree(int u) {
+        long[] pos = { offsets[u] };
+        return (int) readVarint(pos);
+    }
+
+    @Override
+    public Cursor cursor() { return new Decoder(); }
+
+    // Decodes one node's record; the only state is the byte position, the count left and the last neighbour
+    private final class Decoder implements Cursor {
+        private final long[] pos = new long[1];
+        private int remaining, current;
+        private double weight;
+        private boolean first;
+
+        @Override
+        public void reset(int u) {
+            pos[0] = offsets[u];
+            remaining = (int) readVarint(pos);
+            current = u;
+            first = true;
+        }
+
+        @Override
+        public boolean hasNext() { return remaining > 0; }
+
+        @Override
+        public int next() {
+            long raw = readVarint(pos);
+            if (first) { current += (int) ((raw >>> 1) ^ -(raw & 1)); first = false; }
+            else current += (int) raw;
+            switch (mode) {
+                case NONE -> weight = 1.0;
+                case INTEGER -> weight = readVarint(pos);
+                case FLOAT -> weight = Float.intBitsToFloat(readFixedInt(pos));
+                case DOUBLE -> weight = Double.longBitsToDouble(readFixedLong(pos));
+            }
+            remaining--;
+            return current;
+        }
+
+        @Override
+        public double weight() { return weight; }
+
+        // byte position, then remaining count (bit 63 = first) and last neighbour
+        @Override
+        public void save(long[] state, int at) {
+            state[at] = pos[0];
+            state[at + 1] = (first ? Long.MIN_VALUE : 0) | (long) remaining << 32 | (current & 0xffffffffL);
+        }
+
+        @Override
+        public void restore(long[] state, int at) {
+            pos[0] = state[at];
+            long s = state[at + 1];
+            first = s < 0;
+            remaining = (int) ((s >>> 32) & 0x7fffffff);
+            current = (int) s;
+        }
+    }
+
+    private long readVarint(long[] pos) {
+        long p = pos[0], value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = pages[(int) (p >>> PAGE_BITS)][(int) (p & PAGE_MASK)];
+            p++;
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        pos[0] = p;
+        return value;
+    }
+
+    private int readFixedInt(long[] pos) {
+        int v = 0;
+        for (int i = 0; i < 4; i++) {
+            long p = pos[0]++;
+            v |= (pages[(int) (p >>> PAGE_BITS)][(int) (p & PAGE_MASK)] & 0xff) << (8 * i);
+        }
+        return v;
+    }
+
+    private long readFixedLong(long[] pos) {
+        long lo = readFixedInt(pos) & 0xffffffffL;
+        return lo | (long) readFixedInt(pos) << 32;
+    }
+
+    //Streaming builder: add nodes 0, 1, 2, ... in order; each list is sorted before encoding.
+    //Weights that the chosen mode cannot store exactly are rejected.
+    public static class Builder {
+        private final WeightMode mode;
+        private final long[] offsets;
+        private byte[][] pages = new byte[4][];
+        private long size, arcs;
+        private int added;
+        private long[] sortKeys = new long[16];
+
+        public Builder(int nodeCount, WeightMode mode) {
+            this.mode = mode;
+            this.offsets = new long[nodeCount + 1];
+        }
+
+        //Appends the next node; its neighbours are nbrs[from .. from+deg) with matching weights (may be null in NONE mode).
+        public void add(int[] nbrs, double[] weights, int from, int deg) {
+            if (added == offsets.length - 1) throw new IllegalStateException("All " + added + " nodes already added");
+            int u = added++;
+            offsets[u] = size;
+
+            // sort by neighbour index, carrying the slot so weights follow
+            if (sortKeys.length < deg) sortKeys = new long[Math.max(deg, sortKeys.length * 2)];
+            for (int j = 0; j < deg; j++) sortKeys[j] = ((long) nbrs[from + j] << 32) | j;
+            Arrays.sort(sortKeys, 0, deg);
+
+            writeVarint(deg);
+            int prev = u;
+            for (int j = 0; j < deg; j++) {
+                int v = (int) (sortKeys[j] >>> 32);
+                int gap = v - prev;
+                // the first gap may be negative: zigzag it into an unsigned 32-bit value
+                writeVarint(j == 0 ? ((gap << 1) ^ (gap >> 31)) & 0xffffffffL : gap);
+                prev = v;
+                if (weights != null) {
+                    double w = weights[from + (int) sortKeys[j]];
+                    switch (mode) {
+                        case NONE -> check(w == 1.0, w);
+                        case INTEGER -> { check(fitsInteger(w), w); writeVarint((long) w); }
+                        case FLOAT -> { check(fitsFloat(w), w); writeFixedInt(Float.floatToIntBits((float) w)); }
+                        case DOUBLE -> writeFixedLong(Double.doubleToLongBits(w));
+                    }
+                }
+            }
+            arcs += deg;
+            offsets[u + 1] = size;
+        }
+
+        public CompressedGraph build() {
+            if (added != offsets.length - 1)
+                throw new IllegalStateException("Only " + added + " of " + (offsets.length - 1) + " nodes added");
+            // trim the last page to what was written
+            int last = (int) (size >>> PAGE_BITS);
+            byte[][] used = Arrays.copyOf(pages, last + 1);
+            if (used[last] == null) used[last] = new byte[0];
+            used[last] = Arrays.copyOf(used[last], (int) (size & PAGE_MASK));
+            return new CompressedGraph(used, offsets, arcs, mode);
+        }
+
+        private void writeVarint(long v) {
+            while ((v & ~0x7fL) != 0) {
+                writeByte((byte) ((v & 0x7f) | 0x80));
+                v >>>= 7;
+            }
+            writeByte((byte) v);
+        }
+
+        private void writeFixedInt(int v) {
+            for (int i = 0; i < 4; i++) writeByte((byte) (v >>> (8 * i)));
+        }
+
+        private void writeFixedLong(long v) {
+            writeFixedInt((int) v);
+            writeFixedInt((int) (v >>> 32));
+        }
+
+        private void check(boolean exact, double w) {
+            if (!exact) throw new IllegalArgumentException("Weight " + w + " cannot be stored exactly in " + mode + " mode");
+        }
+
+        private void writeByte(byte b) {
+            int page = (int) (size >>> PAGE_BITS), at = (int) (size & PAGE_MASK);
+            if (page >= pages.length) pages = Arrays.copyOf(pages, pages.length * 2);
+            byte[] buf = pages[page];
+            if (buf == null) pages[page] = buf = new byte[1024];
+            else if (at >= buf.length) pages[page] = buf = Arrays.copyOf(buf, Math.min(PAGE_SIZE, buf.length * 2));
+            buf[at] = b;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package pl.uni.graphs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graphstream.stream.SinkAdapter;
+import org.graphstream.stream.file.FileSource;
+import org.graphstream.stream.file.FileSourceDGS;
+
+//Builds the out-of-core formats (CompressedGraph, MappedGraphFile) from an unordered stream of
+//undirected edges, for inputs whose SingleGraph or CompactGraph would not fit in heap. Both arcs of
+//every edge go through an external sort by source (sorted runs spilled to a private directory under
+//workDir), so only the node id table and one run buffer stay in heap. Edges come from addEdge() or a DGS file; weights follow
+//the same rules as Tools.weight, and node indices follow the order in which ids first appear.
+public class ExternalGraphBuilder implements AutoCloseable {
+    private final Path dir;
+    private final ArcSorter arcs;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private long arcCount;
+    private int unparsedWeights;
+    private boolean unit = true, integral = true, single = true;
+    private double minWeight = Double.POSITIVE_INFINITY;
+
+    public ExternalGraphBuilder(Path workDir) {
+        this(workDir, ExternalTraversals.DEFAULT_RUN_RECORDS);
+    }
+
+    //runRecords bounds the arcs kept in heap per sorted run (the memory budget).
+    public ExternalGraphBuilder(Path workDir, int runRecords) {
+        try {
+            Files.createDirectories(workDir);
+            dir = Files.createTempDirectory(workDir, "edges");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create work directory in " + workDir, e);
+        }
+        arcs = new ArcSorter(dir, Math.max(1, runRecords));
+    }
+
+    //Index of the node with this id, adding it if it is new.
+    public int addNode(String id) {
+        Integer u = index.get(id);
+        if (u != null) return u;
+        index.put(id, ids.size());
+        ids.add(id);
+        return ids.size() - 1;
+    }
+
+    public void addEdge(String from, String to, double weight) {
+        addEdge(addNode(from), addNode(to), weight);
+    }
+
+    //Adds an undirected edge between existing nodes; a loop is stored once, like Node.getEdge().
+    public void addEdge(int u, int v, double weight) {
+        if (u < 0 || u >= ids.size() || v < 0 || v >= ids.size())
+            throw new IllegalArgumentException("Unknown node in edge " + u + "-" + v);
+        if (!(weight >= minWeight)) minWeight = weight; // also records NaN
+        if (weight != 1.0) unit = false;
+        if (!CompressedGraph.fitsInteger(weight)) integral = false;
+        if (!CompressedGraph.fitsFloat(weight)) single = false;
+        try {
+            arcs.add(u, v, weight);
+            arcCount++;
+            if (u != v) { arcs.add(v, u, weight); arcCount++; }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill edges to " + dir, e);
+        }
+    }
+
+    //Streams the nodes and edges of a DGS file. Edge weights must be set on the "ae" line or by
+    //"ce" lines directly after it (as the lab generators write them); removals are not supported.
+    public void readDGS(Path file) {
+        read(file.toString(), fs -> fs.readAll(file.toString()));
+    }
+
+    //Same, for a DGS resource on the classpath (like Tools.readGraph).
+    public void readResource(String resourcePath) {
+        URL url = ExternalGraphBuilder.class.getClassLoader().getResource(resourcePath);
+        if (url == null) throw new IllegalArgumentException("Resource not found on classpath: " + resourcePath);
+        read(resourcePath, fs -> fs.readAll(url));
+    }
+
+    public int nodeCount() { return ids.size(); }
+
+    public long arcCount() { return arcCount; }
+
+    public String id(int u) { return ids.get(u); }
+
+    //Number of edges whose weight attribute did not parse (stored as 1.0, like CompactGraph).
+    public int unparsedWeights() { return unparsedWeights; }
+
+    //Compresses the edges read so far; no further edges can be added afterwards.
+    public CompressedGraph buildCompressed() {
+        int n = nodeCount();
+        CompressedGraph.Builder b = new CompressedGraph.Builder(n, CompressedGraph.weightMode(unit, integral, single));
+        int[] nbrs = new int[16];
+        double[] weights = new double[16];
+        try (ArcSorter.Stream s = arcs.finish()) {
+            boolean more = s.advance();
+            for (int u = 0; u < n; u++) {
+                int deg = 0;
+                for (; more && s.source == u; more = s.advance()) {
+                    if (deg == nbrs.length) {
+                        nbrs = Arrays.copyOf(nbrs, deg * 2);
+                        weights = Arrays.copyOf(weights, deg * 2);
+                    }
+                    nbrs[deg] = s.target;
+                    weights[deg++] = s.weight;
+                }
+                b.add(nbrs, weights, 0, deg);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to merge sorted edges in " + dir, e);
+        }
+        return b.build();
+    }
+
+    //Writes the edges read so far as a MappedGraphFile in one sequential pass over the sorted arcs;
+    //no further edges can be added afterwards. Negative and NaN weights are rejected, like write().
+    public void writeMapped(Path path) {
+        if (arcCount > 0 && !(minWeight >= 0))
+            throw new IllegalArgumentException("Edge weight " + minWeight + "; adjacency files need non-negative weights");
+        try (ArcSorter.Stream s = arcs.finish()) {
+            MappedGraphFile.write(s, nodeCount(), arcCount, !unit, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write adjacency file: " + path, e);
+        }
+    }
+
+    //Deletes the sorted runs and the private work directory.
+    @Override
+    public void close() {
+        try {
+            arcs.close();
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clean up " + dir, e);
+        }
+    }
+
+    private interface Reading { void run(FileSource fs) throws IOException; }
+
+    private void read(String name, Reading reading) {
+        DgsSink sink = new DgsSink();
+        FileSource fs = new FileSourceDGS();
+        fs.addSink(sink);
+        try {
+            reading.run(fs);
+            sink.flush();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read DGS: " + name, e);
+        } finally {
+            fs.removeSink(sink);
+        }
+    }
+
+    // Keeps only the edge being declared; it is added once the next structural event arrives
+    private final class DgsSink extends SinkAdapter {
+        private final Map<String, Object> attributes = new HashMap<>();
+        private String pending;
+        private int from, to;
+
+        @Override
+        public void nodeAdded(String sourceId, long timeId, String nodeId) {
+            flush();
+            addNode(nodeId);
+        }
+
+        @Override
+        public void edgeAdded(String sourceId, long timeId, String edgeId, String fromId, String toId, boolean directed) {
+            flush();
+            pending = edgeId;
+            from = addNode(fromId);
+            to = addNode(toId);
+        }
+
+        @Override
+        public void edgeAttributeAdded(String sourceId, long timeId, String edgeId, String key, Object value) {
+            attributes.put(pendingKey(edgeId, key), value);
+        }
+
+        @Override
+        public void edgeAttributeChanged(String sourceId, long timeId, String edgeId, String key, Object oldValue, Object newValue) {
+            attributes.put(pendingKey(edgeId, key), newValue);
+        }
+
+        @Override
+        public void edgeAttributeRemoved(String sourceId, long timeId, String edgeId, String key) {
+            attributes.remove(pendingKey(edgeId, key));
+        }
+
+        @Override
+        public void nodeRemoved(String sourceId, long timeId, String nodeId) { unsupported("dn " + nodeId); }
+
+        @Override
+        public void edgeRemoved(String sourceId, long timeId, String edgeId) { unsupported("de " + edgeId); }
+
+        @Override
+        public void graphCleared(String sourceId, long timeId) { unsupported("cl"); }
+
+        void flush() {
+            if (pending == null) return;
+            double w = Tools.weight(attributes::get, Double.NaN);
+            if (Double.isNaN(w)) { unparsedWeights++; w = 1.0; }
+            addEdge(from, to, w);
+            pending = null;
+            attributes.clear();
+        }
+
+        private String pendingKey(String edgeId, String key) {
+            if (!edgeId.equals(pending))
+                throw new IllegalArgumentException("Attribute " + key + " of edge " + edgeId
+                        + " must directly follow the edge; earlier edges are already on disk");
+            return key;
+        }
+
+        private void unsupported(String event) {
+            throw new IllegalArgumentException("Edge streams cannot replay removals (" + event + ")");
+        }
+    }
+}
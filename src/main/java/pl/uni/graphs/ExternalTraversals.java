@@ -0,0 +1,136 @@
+package pl.uni.graphs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+//Out-of-core BFS and single-source shortest paths over a MappedGraphFile.
+//Each round reads the frontier in ascending node order, so adjacency and distance pages are
+//visited sequentially; the generated candidates are externally sorted by node and merged
+//against the distance file in one more sequential pass, which also yields the next sorted frontier.
+//Distances and parents are spilled to memory-mapped files in a private directory created under the
+//work directory for each run, so several traversals (and their open Results) can share one workDir.
+public class ExternalTraversals {
+
+    // Default candidate buffer: 4M records (~80 MB of heap) before a sorted run is spilled
+    public static final int DEFAULT_RUN_RECORDS = 1 << 22;
+
+    // Distances and parents of a finished traversal, backed by mapped files; close() deletes them.
+    public static class Result implements AutoCloseable {
+        private final MappedFile dist, parent;
+        private final Path dir;
+        public final int rounds;
+
+        Result(MappedFile dist, MappedFile parent, Path dir, int rounds) {
+            this.dist = dist; this.parent = parent; this.dir = dir; this.rounds = rounds;
+        }
+
+        public double dist(int u) { return dist.getDouble(8L * u); }
+
+        public int parent(int u) { return parent.getInt(4L * u); }
+
+        @Override
+        public void close() {
+            try {
+                dist.close();
+                parent.close();
+                deleteDir(dir);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    //Hop distances from source; each round settles one BFS level.
+    public static Result bfs(MappedGraphFile g, int source, Path workDir) {
+        return run(g, source, workDir, true, DEFAULT_RUN_RECORDS);
+    }
+
+    //Weighted distances by rounds of sorted frontier relaxation (adjacency files never hold negative weights).
+    public static Result sssp(MappedGraphFile g, int source, Path workDir) {
+        return run(g, source, workDir, false, DEFAULT_RUN_RECORDS);
+    }
+
+    //runRecords bounds the candidates kept in heap per sorted run (the memory budget).
+    public static Result run(MappedGraphFile g, int source, Path workDir, boolean unitWeights, int runRecords) {
+        int n = g.nodeCount();
+        MappedFile dist = null, parent = null;
+        Path dir = null;
+        try {
+            Files.createDirectories(workDir);
+            dir = Files.createTempDirectory(workDir, "traversal");
+            dist = new MappedFile(dir.resolve("dist.bin"), 8L * n, true);
+            parent = new MappedFile(dir.resolve("parent.bin"), 4L * n, true);
+            for (long u = 0; u < n; u++) {
+                dist.putDouble(8 * u, Double.POSITIVE_INFINITY);
+                parent.putInt(4 * u, -1);
+            }
+            dist.putDouble(8L * source, 0.0);
+
+            Path frontier = dir.resolve("frontier-a.bin");
+            Path next = dir.resolve("frontier-b.bin");
+            try (BlockIO.Writer w = new BlockIO.Writer(frontier)) { w.putInt(source); }
+            long frontierSize = 1;
+            int rounds = 0;
+            Adjacency.Cursor c = g.cursor();
+            CandidateSorter sorter = new CandidateSorter(dir, (int) Math.max(1, Math.min(runRecords, g.arcCount())));
+
+            while (frontierSize > 0) {
+                // relax: frontier is ascending, so offsets, targets and dist are read in order
+                sorter.clear();
+                try (BlockIO.Reader in = new BlockIO.Reader(frontier)) {
+                    for (long i = 0; i < frontierSize; i++) {
+                        int u = in.getInt();
+                        double du = dist.getDouble(8L * u);
+                        c.reset(u);
+                        while (c.hasNext()) {
+                            int v = c.next();
+                            sorter.add(v, u, du + (unitWeights ? 1.0 : c.weight()));
+                        }
+                    }
+                }
+
+                // merge: candidates ascend by node, improvements form the next sorted frontier
+                long accepted = 0;
+                try (CandidateSorter.Stream s = sorter.finish();
+                     BlockIO.Writer out = new BlockIO.Writer(next)) {
+                    while (s.advance()) {
+                        long at = s.node;
+                        if (s.dist < dist.getDouble(8 * at)) {
+                            dist.putDouble(8 * at, s.dist);
+                            parent.putInt(4 * at, s.parent);
+                            out.putInt(s.node);
+                            accepted++;
+                        }
+                    }
+                }
+
+                Path t = frontier; frontier = next; next = t;
+                frontierSize = accepted;
+                rounds++;
+            }
+            Files.deleteIfExists(frontier);
+            Files.deleteIfExists(next);
+            return new Result(dist, parent, dir, rounds);
+        } catch (IOException e) {
+            try {
+                if (dist != null) dist.close();
+                if (parent != null) parent.close();
+                if (dir != null) deleteDir(dir);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new UncheckedIOException("External traversal failed in " + workDir, e);
+        }
+    }
+
+    // Removes a run directory and the files left in it
+    private static void deleteDir(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+}
@@ -0,0 +1,73 @@
+package pl.uni.graphs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.Graphs;
+
+//Parses each DGS resource once and hands out per-consumer copies.
+//The parsed master graph is never displayed or modified. load() returns a structural clone that
+//shares the master's attribute values, so "visited", "dist", "ui.class", ... set by one exercise
+//land only in that exercise's copy. Resources can be parsed ahead of time on background threads.
+//Tradeoff: a master stays in memory next to its copies until release() or close(), so a resource
+//loaded k times costs one parse and k+1 graphs. Callers release a path after its last load();
+//a released path is parsed again if it is loaded later. close() ends the repository: further
+//prefetch() or load() calls throw IllegalStateException.
+public class GraphRepository implements AutoCloseable {
+    private final ConcurrentHashMap<String, CompletableFuture<Graph>> masters = new ConcurrentHashMap<>();
+    private final ExecutorService loader = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "graph-loader");
+        t.setDaemon(true); // never keeps the JVM alive
+        return t;
+    });
+    private volatile boolean closed;
+
+    //Starts parsing the given resources in the background; later load() calls wait for them.
+    public void prefetch(String... resourcePaths) {
+        for (String path : resourcePaths) master(path);
+    }
+
+    //Returns a private copy of the resource's graph, parsing it first if needed.
+    public Graph load(String resourcePath) {
+        // the master is only ever read, so it can be cloned from several threads at once
+        return Graphs.clone(join(master(resourcePath)));
+    }
+
+    //Drops the cached master of the resource; copies already handed out are unaffected.
+    public void release(String resourcePath) {
+        masters.remove(resourcePath);
+    }
+
+    //Drops every master and stops the loader threads; the repository cannot be used afterwards.
+    @Override
+    public void close() {
+        closed = true;
+        masters.clear();
+        loader.shutdown();
+    }
+
+    private CompletableFuture<Graph> master(String resourcePath) {
+        if (closed) throw new IllegalStateException("repository closed");
+        try {
+            return masters.computeIfAbsent(resourcePath,
+                    p -> CompletableFuture.supplyAsync(() -> Tools.readGraph(p), loader));
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("repository closed", e); // close() raced with this call
+        }
+    }
+
+    // Waits for a load and rethrows its original exception
+    private static <T> T join(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+}
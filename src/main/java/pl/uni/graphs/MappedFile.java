@@ -0,0 +1,57 @@
+package pl.uni.graphs;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//A file mapped as consecutive 1 GB segments and addressed by absolute byte position,
+//so it may be larger than both the heap and physical memory (the OS pages it in and out).
+//Values must be aligned to their own size so none straddles two segments.
+final class MappedFile implements AutoCloseable {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final boolean writable;
+    private final long size;
+
+    //Maps the first size bytes of path; a writable mapping creates or extends the file.
+    MappedFile(Path path, long size, boolean writable) throws IOException {
+        this.writable = writable;
+        this.size = size;
+        channel = writable
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(mode, start, Math.min(SEGMENT_SIZE, size - start));
+        }
+    }
+
+    long size() { return size; }
+
+    int getInt(long pos) { return segment(pos).getInt(offset(pos)); }
+    long getLong(long pos) { return segment(pos).getLong(offset(pos)); }
+    double getDouble(long pos) { return segment(pos).getDouble(offset(pos)); }
+
+    void putInt(long pos, int v) { segment(pos).putInt(offset(pos), v); }
+    void putLong(long pos, long v) { segment(pos).putLong(offset(pos), v); }
+    void putDouble(long pos, double v) { segment(pos).putDouble(offset(pos), v); }
+
+    private MappedByteBuffer segment(long pos) { return segments[(int) (pos >>> SEGMENT_BITS)]; }
+
+    private static int offset(long pos) { return (int) (pos & SEGMENT_MASK); }
+
+    //Flushes dirty pages of a writable mapping and releases the channel.
+    @Override
+    public void close() throws IOException {
+        if (writable) for (MappedByteBuffer s : segments) s.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,165 @@
+package pl.uni.graphs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Adjacency stored in a file and memory-mapped on demand, so it can be larger than RAM.
+//Layout: 32-byte header (magic, version, n, m, weighted flag), n+1 long offsets,
+//m int targets, then m double weights if any weight differs from 1.0. Sections start on 8-byte boundaries.
+//Files are written from an in-heap Adjacency by write() or from an edge stream by ExternalGraphBuilder;
+//weights are never negative.
+public class MappedGraphFile implements Adjacency, AutoCloseable {
+    private static final int MAGIC = 0x4741444a;            // "GADJ"
+    private static final int VERSION = 2;                   // 1 stored float weights
+    private static final long HEADER = 32;
+
+    private final MappedFile file;
+    private final int n;
+    private final long m;
+    private final boolean weighted;
+    private final long targetsAt, weightsAt;
+
+    private MappedGraphFile(MappedFile file, int n, long m, boolean weighted) {
+        this.file = file; this.n = n; this.m = m; this.weighted = weighted;
+        targetsAt = HEADER + 8L * (n + 1);
+        weightsAt = align8(targetsAt + 4L * m);
+    }
+
+    //Writes any adjacency to path in two sequential passes (degrees, then neighbours).
+    //Weights are kept exactly; the weight section is omitted when every weight is 1.0.
+    //Negative and NaN weights are rejected, since the external traversals assume none.
+    public static void write(Adjacency g, Path path) {
+        int n = g.nodeCount();
+        Adjacency.Cursor c = g.cursor();
+        try (FileChannel ch = create(path)) {
+            long m = 0;
+            boolean weighted = false;
+            try (BlockIO.Writer offsets = new BlockIO.Writer(ch, HEADER)) {
+                offsets.putLong(0);
+                for (int u = 0; u < n; u++) {
+                    c.reset(u);
+                    while (c.hasNext()) {
+                        int v = c.next();
+                        checkWeight(u, v, c.weight());
+                        if (c.weight() != 1.0) weighted = true;
+                        m++;
+                    }
+                    offsets.putLong(m);
+                }
+            }
+
+            long targetsAt = HEADER + 8L * (n + 1);
+            try (BlockIO.Writer targets = new BlockIO.Writer(ch, targetsAt);
+                 BlockIO.Writer weights = new BlockIO.Writer(ch, align8(targetsAt + 4L * m))) {
+                for (int u = 0; u < n; u++) {
+                    c.reset(u);
+                    while (c.hasNext()) {
+                        targets.putInt(c.next());
+                        if (weighted) weights.putDouble(c.weight());
+                    }
+                }
+            }
+            writeHeader(ch, n, m, weighted);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write adjacency file: " + path, e);
+        }
+    }
+
+    // Writes m arcs that arrive sorted by source in one sequential pass; used by ExternalGraphBuilder,
+    // which knows n, m and whether any weight differs from 1.0 (and has checked them) before merging
+    static void write(ArcSorter.Stream arcs, int n, long m, boolean weighted, Path path) throws IOException {
+        long targetsAt = HEADER + 8L * (n + 1);
+        try (FileChannel ch = create(path)) {
+            long arc = 0;
+            try (BlockIO.Writer offsets = new BlockIO.Writer(ch, HEADER);
+                 BlockIO.Writer targets = new BlockIO.Writer(ch, targetsAt);
+                 BlockIO.Writer weights = new BlockIO.Writer(ch, align8(targetsAt + 4L * m))) {
+                offsets.putLong(0);
+                boolean more = arcs.advance();
+                for (int u = 0; u < n; u++) {
+                    for (; more && arcs.source == u; more = arcs.advance()) {
+                        targets.putInt(arcs.target);
+                        if (weighted) weights.putDouble(arcs.weight);
+                        arc++;
+                    }
+                    offsets.putLong(arc);
+                }
+            }
+            if (arc != m) throw new IllegalStateException("Expected " + m + " arcs, merged " + arc);
+            writeHeader(ch, n, m, weighted);
+        }
+    }
+
+    // Distances are label-correcting sums: a negative cycle would never settle
+    private static void checkWeight(int u, int v, double w) {
+        if (!(w >= 0))
+            throw new IllegalArgumentException("Arc " + u + "->" + v + " has weight " + w + "; adjacency files need non-negative weights");
+    }
+
+    private static FileChannel create(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void writeHeader(FileChannel ch, int n, long m, boolean weighted) throws IOException {
+        try (BlockIO.Writer header = new BlockIO.Writer(ch, 0)) {
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(n);
+            header.putLong(m);
+            header.putLong(weighted ? 1 : 0);
+        }
+    }
+
+    //Maps an adjacency file written by write() read-only.
+    public static MappedGraphFile open(Path path) {
+        try {
+            long size;
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) { size = ch.size(); }
+            MappedFile file = new MappedFile(path, size, false);
+            if (size < HEADER || file.getInt(0) != MAGIC || file.getInt(4) != VERSION) {
+                file.close();
+                throw new IllegalArgumentException("Not an adjacency file: " + path);
+            }
+            return new MappedGraphFile(file, (int) file.getLong(8), file.getLong(16), file.getLong(24) != 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map adjacency file: " + path, e);
+        }
+    }
+
+    @Override
+    public int nodeCount() { return n; }
+
+    public long arcCount() { return m; }
+
+    public boolean isWeighted() { return weighted; }
+
+    //Index of u's first arc; its arcs are [offset(u), offset(u+1)).
+    public long offset(int u) { return file.getLong(HEADER + 8L * u); }
+
+    public int target(long arc) { return file.getInt(targetsAt + 4 * arc); }
+
+    public double weight(long arc) { return weighted ? file.getDouble(weightsAt + 8 * arc) : 1.0; }
+
+    @Override
+    public Cursor cursor() {
+        return new Cursor() {
+            long p, end;
+            public void reset(int u) { p = offset(u); end = offset(u + 1); }
+            public boolean hasNext() { return p < end; }
+            public int next() { return target(p++); }
+            public double weight() { return MappedGraphFile.this.weight(p - 1); }
+            public void save(long[] state, int at) { state[at] = p; state[at + 1] = end; }
+            public void restore(long[] state, int at) { p = state[at]; end = state[at + 1]; }
+        };
+    }
+
+    @Override
+    public void close() {
+        try { file.close(); } catch (IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    private static long align8(long pos) { return (pos + 7) & ~7L; }
+}
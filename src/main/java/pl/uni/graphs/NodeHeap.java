@@ -0,0 +1,59 @@
+package pl.uni.graphs;
+
+import java.util.Arrays;
+
+//Binary min-heap of (node, key) pairs kept in primitive arrays.
+//There is no decrease-key: callers push again and skip entries whose key is stale.
+final class NodeHeap {
+    private int[] nodes;
+    private double[] keys;
+    private int size;
+
+    NodeHeap(int capacity) {
+        nodes = new int[Math.max(capacity, 16)];
+        keys = new double[nodes.length];
+    }
+
+    boolean isEmpty() { return size == 0; }
+
+    void clear() { size = 0; }
+
+    double peekKey() { return keys[0]; }
+
+    void push(int node, double key) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            nodes[i] = nodes[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+    }
+
+    //Removes the entry with the smallest key and returns its node.
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        double lastKey = keys[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (keys[child] >= lastKey) break;
+            nodes[i] = nodes[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        keys[i] = lastKey;
+        return top;
+    }
+}
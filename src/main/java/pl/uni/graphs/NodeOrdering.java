@@ -0,0 +1,197 @@
+package pl.uni.graphs;
+
+import java.util.Arrays;
+
+//Cache-friendly node relabelling for CompactGraph: BFS order, reverse Cuthill-McKee, Hilbert curve.
+//Nodes that are close in the new order are close in the graph (or in the plane), so traversals
+//touch neighbouring memory instead of jumping around the arrays.
+public class NodeOrdering {
+
+    // Result of a reordering: the permuted graph plus the mapping in both directions.
+    public static class Reordered {
+        public final CompactGraph graph;
+        public final int[] newToOld, oldToNew;
+
+        Reordered(CompactGraph graph, int[] newToOld, int[] oldToNew) {
+            this.graph = graph; this.newToOld = newToOld; this.oldToNew = oldToNew;
+        }
+
+        //Maps per-node values computed on the permuted graph back to original indices.
+        public double[] toOriginal(double[] values) {
+            double[] out = new double[values.length];
+            for (int u = 0; u < values.length; u++) out[newToOld[u]] = values[u];
+            return out;
+        }
+
+        //Maps a parent/predecessor array back to original indices (-1 entries stay -1).
+        public int[] parentsToOriginal(int[] parent) {
+            int[] out = new int[parent.length];
+            for (int u = 0; u < parent.length; u++)
+                out[newToOld[u]] = parent[u] < 0 ? parent[u] : newToOld[parent[u]];
+            return out;
+        }
+    }
+
+    //Applies an arbitrary order (new index u = old node newToOld[u]).
+    public static Reordered apply(CompactGraph g, int[] newToOld) {
+        int[] oldToNew = CompactGraph.inverse(newToOld);
+        return new Reordered(g.permute(newToOld), newToOld, oldToNew);
+    }
+
+    //BFS discovery order from start; other components follow from their lowest index.
+    public static Reordered bfs(CompactGraph g, int start) {
+        int n = g.nodeCount();
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int count = 0;
+        for (int k = -1; k < n; k++) {
+            int s = (k < 0) ? start : k;
+            if (n == 0 || seen[s]) continue;
+            seen[s] = true;
+            int head = count;
+            order[count++] = s;
+            while (head < count) {
+                int u = order[head++];
+                for (int p = g.offsets[u]; p < g.offsets[u + 1]; p++) {
+                    int v = g.targets[p];
+                    if (!seen[v]) { seen[v] = true; order[count++] = v; }
+                }
+            }
+        }
+        return apply(g, order);
+    }
+
+    //Reverse Cuthill-McKee: per component, BFS from a pseudo-peripheral node visiting
+    //neighbours by increasing degree, then the whole order reversed. Keeps the bandwidth small.
+    public static Reordered reverseCuthillMcKee(CompactGraph g) {
+        int n = g.nodeCount();
+        int[] order = new int[n];
+        int[] queue = new int[n];           // scratch for pseudo-peripheral search
+        boolean[] seen = new boolean[n];    // scratch, cleared after each search
+        boolean[] placed = new boolean[n];
+        long[] keys = new long[Math.max(1, maxDegree(g))];
+        int count = 0;
+
+        for (int s : byDegree(g)) {
+            if (placed[s]) continue;
+            int root = pseudoPeripheral(g, s, queue, seen);
+
+            placed[root] = true;
+            int head = count;
+            order[count++] = root;
+            while (head < count) {
+                int u = order[head++];
+                int k = 0;
+                for (int p = g.offsets[u]; p < g.offsets[u + 1]; p++) {
+                    int v = g.targets[p];
+                    if (!placed[v]) {
+                        placed[v] = true;
+                        keys[k++] = ((long) g.degree(v) << 32) | v;
+                    }
+                }
+                Arrays.sort(keys, 0, k);
+                for (int j = 0; j < k; j++) order[count++] = (int) keys[j];
+            }
+        }
+
+        for (int i = 0, j = n - 1; i < j; i++, j--) { int t = order[i]; order[i] = order[j]; order[j] = t; }
+        return apply(g, order);
+    }
+
+    //Hilbert curve order over the node coordinates; nodes without coordinates go last.
+    public static Reordered hilbert(CompactGraph g) {
+        final int bits = 16;
+        int n = g.nodeCount();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        int located = 0;
+        for (int u = 0; u < n; u++) {
+            if (Double.isNaN(g.xs[u]) || Double.isNaN(g.ys[u])) continue;
+            minX = Math.min(minX, g.xs[u]); maxX = Math.max(maxX, g.xs[u]);
+            minY = Math.min(minY, g.ys[u]); maxY = Math.max(maxY, g.ys[u]);
+            located++;
+        }
+
+        // key = 32-bit curve position followed by the node index as a tie-breaker
+        long[] keys = new long[located];
+        int[] order = new int[n];
+        int k = 0, tail = located;
+        double span = Math.max(maxX - minX, maxY - minY);
+        double scale = (span > 0) ? ((1 << bits) - 1) / span : 0.0;
+        for (int u = 0; u < n; u++) {
+            if (Double.isNaN(g.xs[u]) || Double.isNaN(g.ys[u])) { order[tail++] = u; continue; }
+            int x = (int) ((g.xs[u] - minX) * scale);
+            int y = (int) ((g.ys[u] - minY) * scale);
+            keys[k++] = (hilbertIndex(x, y, bits) << 31) | u;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < located; i++) order[i] = (int) (keys[i] & 0x7fffffffL);
+        return apply(g, order);
+    }
+
+    // Position of cell (x, y) along a Hilbert curve filling a 2^bits x 2^bits grid
+    static long hilbertIndex(int x, int y, int bits) {
+        int side = 1 << bits;
+        long d = 0;
+        for (int s = side >>> 1; s > 0; s >>>= 1) {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) { x = side - 1 - x; y = side - 1 - y; }
+                int t = x; x = y; y = t;
+            }
+        }
+        return d;
+    }
+
+    // George-Liu: BFS repeatedly from a min-degree node of the last level while the depth grows
+    private static int pseudoPeripheral(CompactGraph g, int start, int[] queue, boolean[] seen) {
+        int root = start;
+        int depth = -1;
+        while (true) {
+            // level-by-level BFS; queue holds the visited nodes in level order
+            int head = 0, count = 0, levels = 0, lastLevelStart = 0;
+            queue[count++] = root;
+            seen[root] = true;
+            while (head < count) {
+                int levelEnd = count;
+                lastLevelStart = head;
+                levels++;
+                while (head < levelEnd) {
+                    int u = queue[head++];
+                    for (int p = g.offsets[u]; p < g.offsets[u + 1]; p++) {
+                        int v = g.targets[p];
+                        if (!seen[v]) { seen[v] = true; queue[count++] = v; }
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) seen[queue[i]] = false;
+            if (levels <= depth) return root;
+            depth = levels;
+
+            int best = queue[lastLevelStart];
+            for (int i = lastLevelStart + 1; i < count; i++)
+                if (g.degree(queue[i]) < g.degree(best)) best = queue[i];
+            if (best == root) return root;
+            root = best;
+        }
+    }
+
+    // Node indices sorted by increasing degree
+    private static int[] byDegree(CompactGraph g) {
+        int n = g.nodeCount();
+        long[] keys = new long[n];
+        for (int u = 0; u < n; u++) keys[u] = ((long) g.degree(u) << 32) | u;
+        Arrays.sort(keys);
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = (int) keys[i];
+        return out;
+    }
+
+    private static int maxDegree(CompactGraph g) {
+        int max = 0;
+        for (int u = 0; u < g.nodeCount(); u++) max = Math.max(max, g.degree(u));
+        return max;
+    }
+}
@@ -0,0 +1,152 @@
+package pl.uni.graphs;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+//BFS, DFS and Dijkstra on primitive adjacencies (CompactGraph, CompressedGraph).
+//Results are plain arrays indexed by node; parent[u] is -1 for the source and unreached nodes.
+public class PrimitiveTraversals {
+
+    //Hop distances from source (-1 if unreachable); fills parent when it is not null.
+    public static int[] bfs(Adjacency g, int source, int[] parent) {
+        int n = g.nodeCount();
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        if (parent != null) Arrays.fill(parent, -1);
+        int[] queue = new int[n];
+        Adjacency.Cursor c = g.cursor();
+
+        int head = 0, tail = 0;
+        dist[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            c.reset(u);
+            while (c.hasNext()) {
+                int v = c.next();
+                if (dist[v] < 0) {
+                    dist[v] = dist[u] + 1;
+                    if (parent != null) parent[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return dist;
+    }
+
+    //Depth-first preorder from source, the same order as the recursive version; fills parent when it is not null.
+    //Nodes are visited when first reached; each stack frame keeps its node and parked cursor state,
+    //so the stack is O(n) regardless of the number of arcs.
+    public static int[] dfs(Adjacency g, int source, int[] parent) {
+        int n = g.nodeCount();
+        boolean[] visited = new boolean[n];
+        if (parent != null) Arrays.fill(parent, -1);
+        int[] order = new int[n];
+        int[] stackNode = new int[16];
+        long[] stackState = new long[16 * Adjacency.Cursor.STATE_WORDS];
+        Adjacency.Cursor c = g.cursor();
+
+        int count = 0, top = 0, u = source;
+        visited[source] = true;
+        order[count++] = source;
+        c.reset(source);
+        while (true) {
+            if (c.hasNext()) {
+                int v = c.next();
+                if (visited[v]) continue;
+                visited[v] = true;
+                if (parent != null) parent[v] = u;
+                order[count++] = v;
+                if (top == stackNode.length) {
+                    stackNode = Arrays.copyOf(stackNode, top * 2);
+                    stackState = Arrays.copyOf(stackState, stackState.length * 2);
+                }
+                stackNode[top] = u;
+                c.save(stackState, top++ * Adjacency.Cursor.STATE_WORDS);
+                u = v;
+                c.reset(v);
+            } else if (top > 0) {
+                u = stackNode[--top];
+                c.restore(stackState, top * Adjacency.Cursor.STATE_WORDS);
+            } else {
+                break;
+            }
+        }
+        return Arrays.copyOf(order, count);
+    }
+
+    //Weighted shortest-path distances from source (+inf if unreachable); fills parent when not null.
+    public static double[] dijkstra(Adjacency g, int source, int[] parent) {
+        int n = g.nodeCount();
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (parent != null) Arrays.fill(parent, -1);
+        NodeHeap heap = new NodeHeap(n);
+        Adjacency.Cursor c = g.cursor();
+
+        dist[source] = 0.0;
+        heap.push(source, 0.0);
+        while (!heap.isEmpty()) {
+            double d = heap.peekKey();
+            int u = heap.pop();
+            if (d > dist[u]) continue; // stale entry
+            c.reset(u);
+            while (c.hasNext()) {
+                int v = c.next();
+                double alt = d + c.weight();
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    if (parent != null) parent[v] = u;
+                    heap.push(v, alt);
+                }
+            }
+        }
+        return dist;
+    }
+
+    //Eccentricity of every node (largest finite distance), one Dijkstra per node in parallel.
+    public static double[] eccentricities(Adjacency g) {
+        double[] ecc = new double[g.nodeCount()];
+        IntStream.range(0, ecc.length).parallel().forEach(s -> {
+            double max = 0.0;
+            for (double d : dijkstra(g, s, null)) if (d < Double.POSITIVE_INFINITY && d > max) max = d;
+            ecc[s] = max;
+        });
+        return ecc;
+    }
+
+    //All-sources distances as a row-major n*n matrix: entry s*n+t is the distance from s to t.
+    public static double[] allSources(Adjacency g) {
+        int n = g.nodeCount();
+        if ((long) n * n > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Distance matrix for " + n + " nodes does not fit in an array");
+        double[] out = new double[n * n];
+        IntStream.range(0, n).parallel().forEach(s -> System.arraycopy(dijkstra(g, s, null), 0, out, s * n, n));
+        return out;
+    }
+
+    //Connected component label of every node; labels are numbered by their lowest node index.
+    public static int[] components(Adjacency g) {
+        int n = g.nodeCount();
+        int[] label = new int[n];
+        Arrays.fill(label, -1);
+        int[] queue = new int[n];
+        Adjacency.Cursor c = g.cursor();
+        int next = 0;
+        for (int s = 0; s < n; s++) {
+            if (label[s] >= 0) continue;
+            int head = 0, tail = 0;
+            label[s] = next;
+            queue[tail++] = s;
+            while (head < tail) {
+                c.reset(queue[head++]);
+                while (c.hasNext()) {
+                    int v = c.next();
+                    if (label[v] < 0) { label[v] = next; queue[tail++] = v; }
+                }
+            }
+            next++;
+        }
+        return label;
+    }
+}
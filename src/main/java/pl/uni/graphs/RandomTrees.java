@@ -0,0 +1,207 @@
+package pl.uni.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Randomized spanning trees on a CompactGraph: seeded BFS/DFS trees and uniform spanning trees
+//(Wilson's algorithm). An instance owns its scratch arrays and neighbour lists are shuffled in
+//place on a private copy of the adjacency, so repeated sampling does not allocate per node or step.
+//Not thread-safe; use one instance per thread (sampleUniformTrees does this).
+public class RandomTrees {
+
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+
+    private final CompactGraph g;
+    private final int[] nbrs;        // private copy of g.targets, permuted slice by slice
+    private final int[] queue;       // BFS queue / DFS stack / component list
+    private final int[] cursor;      // DFS: next slot to try in each node's slice
+    private final int[] next;        // Wilson: last exit taken from each node during the walk
+    private final int[] mark;        // mark[u] == epoch means visited / in tree
+    private int epoch;
+
+    public RandomTrees(CompactGraph g) {
+        int n = g.nodeCount();
+        this.g = g;
+        nbrs = g.targets.clone();
+        queue = new int[n];
+        cursor = new int[n];
+        next = new int[n];
+        mark = new int[n];
+    }
+
+    //BFS spanning tree with neighbours and each level visited in seeded random order.
+    //Fills parent (-1 for the source and unreached nodes) and returns the number of tree edges.
+    public int bfsTree(int source, long seed, int[] parent) {
+        int[] off = g.offsets;
+        Arrays.fill(parent, -1);
+        int visit = newEpoch();
+        long levelState = mix(seed);
+
+        int head = 0, tail = 0;
+        mark[source] = visit;
+        queue[tail++] = source;
+        while (head < tail) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int u = queue[head++];
+                shuffleSlice(u, seed);
+                for (int p = off[u]; p < off[u + 1]; p++) {
+                    int v = nbrs[p];
+                    if (mark[v] != visit) {
+                        mark[v] = visit;
+                        parent[v] = u;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            // shuffle the whole next level too, so children of different parents interleave
+            levelState = mix(levelState + GOLDEN);
+            shuffle(queue, levelEnd, tail, levelState);
+        }
+        return tail - 1;
+    }
+
+    //DFS spanning tree; each node's neighbour order is a seeded permutation fixed per node.
+    //Fills parent (-1 for the source and unreached nodes) and returns the number of tree edges.
+    public int dfsTree(int source, long seed, int[] parent) {
+        int[] off = g.offsets;
+        Arrays.fill(parent, -1);
+        int visit = newEpoch();
+
+        int top = 0, treeEdges = 0;
+        mark[source] = visit;
+        shuffleSlice(source, seed);
+        cursor[source] = off[source];
+        queue[top++] = source;
+        while (top > 0) {
+            int u = queue[top - 1];
+            int v = -1;
+            while (cursor[u] < off[u + 1]) {
+                int w = nbrs[cursor[u]++];
+                if (mark[w] != visit) { v = w; break; }
+            }
+            if (v < 0) { top--; continue; }
+
+            mark[v] = visit;
+            parent[v] = u;
+            treeEdges++;
+            shuffleSlice(v, seed);
+            cursor[v] = off[v];
+            queue[top++] = v;
+        }
+        return treeEdges;
+    }
+
+    //Uniform random spanning tree of root's component (Wilson: loop-erased random walks).
+    //Fills parent (-1 for the root and nodes outside its component) and returns the number of tree edges.
+    public int uniformTree(int root, SplittableRandom rng, int[] parent) {
+        int[] off = g.offsets, tgt = g.targets;
+        Arrays.fill(parent, -1);
+
+        // collect root's component so walks never start where they cannot reach the tree
+        int seen = newEpoch();
+        int size = 0, head = 0;
+        mark[root] = seen;
+        queue[size++] = root;
+        while (head < size) {
+            int u = queue[head++];
+            for (int p = off[u]; p < off[u + 1]; p++)
+                if (mark[tgt[p]] != seen) { mark[tgt[p]] = seen; queue[size++] = tgt[p]; }
+        }
+
+        int inTree = newEpoch();
+        mark[root] = inTree;
+        for (int i = 0; i < size; i++) {
+            // random walk until the tree is hit; overwriting next[] erases loops implicitly
+            int u = queue[i];
+            while (mark[u] != inTree) {
+                next[u] = tgt[off[u] + rng.nextInt(off[u + 1] - off[u])];
+                u = next[u];
+            }
+            for (u = queue[i]; mark[u] != inTree; u = next[u]) {
+                mark[u] = inTree;
+                parent[u] = next[u];
+            }
+        }
+        return size - 1;
+    }
+
+    //Samples count uniform spanning trees in parallel. Sample i is reproducible from (seed, i)
+    //whatever the thread count. The parent array passed to sink is reused by its thread, so copy it to keep it.
+    public static void sampleUniformTrees(CompactGraph g, int root, int count, long seed, TreeSink sink) {
+        long[] seeds = new SplittableRandom(seed).longs(count).toArray();
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), count));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger nextSample = new AtomicInteger();
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(pool.submit(() -> {
+                    RandomTrees trees = new RandomTrees(g);
+                    int[] parent = new int[g.nodeCount()];
+                    int i;
+                    while ((i = nextSample.getAndIncrement()) < count) {
+                        trees.uniformTree(root, new SplittableRandom(seeds[i]), parent);
+                        sink.accept(i, parent);
+                    }
+                }));
+            }
+            for (Future<?> f : tasks) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Spanning tree sampling interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Spanning tree sampling failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //Convenience form that keeps every sampled parent array.
+    public static int[][] sampleUniformTrees(CompactGraph g, int root, int count, long seed) {
+        int[][] out = new int[count][];
+        sampleUniformTrees(g, root, count, seed, (i, parent) -> out[i] = parent.clone());
+        return out;
+    }
+
+    //Receives sampled trees; called concurrently from the sampling threads.
+    public interface TreeSink { void accept(int sample, int[] parent); }
+
+    // Restores u's slice from the adjacency and permutes it with a generator seeded from (seed, u)
+    private void shuffleSlice(int u, long seed) {
+        int from = g.offsets[u], to = g.offsets[u + 1];
+        System.arraycopy(g.targets, from, nbrs, from, to - from);
+        shuffle(nbrs, from, to, mix(seed ^ (u * GOLDEN)));
+    }
+
+    // Fisher-Yates on a[from..to) driven by a SplitMix64 sequence (the generator behind SplittableRandom)
+    private static void shuffle(int[] a, int from, int to, long state) {
+        for (int i = to - 1; i > from; i--) {
+            state += GOLDEN;
+            int j = from + (int) Math.floorMod(mix(state), (long) (i - from + 1));
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Next visit stamp; clears the marks on the (rare) wrap-around
+    private int newEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+}
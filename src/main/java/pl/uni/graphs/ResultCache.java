@@ -0,0 +1,212 @@
+package pl.uni.graphs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+//Persistent on-disk cache for expensive analysis results (eccentricities, components, distances).
+//Entries are keyed by a SHA-256 of the graph content plus the algorithm name and parameters, so a
+//changed input simply misses and recomputes. Algorithm names carry a version ("components@2") that
+//is bumped whenever the computation changes; KEY_VERSION covers fingerprint() and the entry format.
+//Arrays are stored raw (16-byte header + payload), read back through memory mapping, and the
+//directory is trimmed to a byte budget, least recently used first.
+public class ResultCache {
+    private static final int MAGIC = 0x47524331;             // "GRC1"
+    private static final int DOUBLES = 1, INTS = 2;
+    private static final int HEADER = 16;
+    private static final byte KEY_VERSION = 2;               // bump when fingerprint() or the layout changes
+    private static final int CHUNK = 1 << 30;                // bytes mapped or written per step
+    private static final long STALE_TMP_MILLIS = 3_600_000L;  // temp files older than this are abandoned
+
+    private final Path dir;
+    private final long maxBytes;
+
+    public ResultCache(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    //~/.cache/graph-lab2, limited to 512 MB.
+    public static ResultCache defaultCache() {
+        return new ResultCache(Path.of(System.getProperty("user.home"), ".cache", "graph-lab2"), 512L << 20);
+    }
+
+    //Content hash of a graph: node ids, adjacency and weights (coordinates do not affect analyses).
+    public static String fingerprint(CompactGraph g) {
+        MessageDigest md = sha256();
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        for (String id : g.ids) {
+            md.update(id.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+        for (int v : g.offsets) { if (buf.remaining() < 4) drain(md, buf); buf.putInt(v); }
+        for (int v : g.targets) { if (buf.remaining() < 4) drain(md, buf); buf.putInt(v); }
+        for (double w : g.weights) { if (buf.remaining() < 8) drain(md, buf); buf.putDouble(w); }
+        drain(md, buf);
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    //Cached double[] for (graphKey, algorithm), computed and stored on a miss; algorithm is a versioned name.
+    //A cache that cannot be written behaves like a miss: the computed value is still returned.
+    public double[] doubles(String graphKey, String algorithm, Supplier<double[]> compute) {
+        Path file = entry(graphKey, algorithm);
+        double[] hit = (double[]) read(file, DOUBLES);
+        if (hit != null) return hit;
+        double[] value = compute.get();
+        write(file, DOUBLES, value, value.length);
+        return value;
+    }
+
+    //Cached int[] for (graphKey, algorithm), computed and stored on a miss.
+    public int[] ints(String graphKey, String algorithm, Supplier<int[]> compute) {
+        Path file = entry(graphKey, algorithm);
+        int[] hit = (int[]) read(file, INTS);
+        if (hit != null) return hit;
+        int[] value = compute.get();
+        write(file, INTS, value, value.length);
+        return value;
+    }
+
+    private Path entry(String graphKey, String algorithm) {
+        MessageDigest md = sha256();
+        md.update(KEY_VERSION);
+        md.update(graphKey.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(algorithm.getBytes(StandardCharsets.UTF_8));
+        return dir.resolve(HexFormat.of().formatHex(md.digest()) + ".bin");
+    }
+
+    // Maps an entry and copies its payload out; null on a miss or a damaged entry
+    private Object read(Path file, int type) {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER) return null;
+            ByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            long length = head.getLong(8);
+            int width = (type == DOUBLES) ? 8 : 4;
+            if (head.getInt(0) != MAGIC || head.getInt(4) != type || size != HEADER + length * width) return null;
+
+            Object out = (type == DOUBLES) ? new double[(int) length] : new int[(int) length];
+            int perChunk = CHUNK / width;
+            for (int from = 0; from < length; from += perChunk) {
+                int count = (int) Math.min(perChunk, length - from);
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, HEADER + (long) from * width, (long) count * width);
+                if (type == DOUBLES) map.asDoubleBuffer().get((double[]) out, from, count);
+                else map.asIntBuffer().get((int[]) out, from, count);
+            }
+            touch(file);
+            return out;
+        } catch (IOException e) {
+            return null; // unreadable entries behave like misses and get rewritten
+        }
+    }
+
+    // Refreshes the LRU timestamp; best effort, so a read-only cache directory still serves hits
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignore) {
+        }
+    }
+
+    // Writes to a temporary file and renames it, so readers never see a partial entry.
+    // Failures (read-only or full disk, entries removed concurrently) only cost the entry.
+    private void write(Path file, int type, Object values, int length) {
+        int width = (type == DOUBLES) ? 8 : 4;
+        Path tmp = null;
+        try {
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, "entry", ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer head = ByteBuffer.allocate(HEADER);
+                head.putInt(MAGIC).putInt(type).putLong(length).flip();
+                while (head.hasRemaining()) ch.write(head);
+
+                int perChunk = BlockIO.BUFFER / width;
+                ByteBuffer buf = ByteBuffer.allocateDirect(BlockIO.BUFFER);
+                for (int from = 0; from < length; from += perChunk) {
+                    int count = Math.min(perChunk, length - from);
+                    buf.clear();
+                    if (type == DOUBLES) buf.asDoubleBuffer().put((double[]) values, from, count);
+                    else buf.asIntBuffer().put((int[]) values, from, count);
+                    buf.limit(count * width);
+                    while (buf.hasRemaining()) ch.write(buf);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            evict();
+        } catch (IOException | UncheckedIOException e) {
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (IOException ignore) { }
+            }
+        }
+    }
+
+    // Deletes least recently used entries until the directory fits the byte budget. Temporary files
+    // count too; those older than an hour were left by a crashed or failed write and are removed.
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        long total = 0, staleBefore = System.currentTimeMillis() - STALE_TMP_MILLIS;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                if (name.endsWith(".bin")) {
+                    entries.add(p);
+                    total += size(p);
+                } else if (name.startsWith("entry") && name.endsWith(".tmp")) {
+                    if (lastModified(p) < staleBefore) Files.deleteIfExists(p);
+                    else total += size(p); // possibly still being written by another process
+                }
+            }
+        }
+        if (total <= maxBytes) return;
+
+        entries.sort(Comparator.comparingLong(ResultCache::lastModified));
+        for (Path p : entries) {
+            if (total <= maxBytes) break;
+            long size = size(p);
+            if (Files.deleteIfExists(p)) total -= size;
+        }
+    }
+
+    // Size and mtime of files that may vanish under a concurrent eviction (0 when gone)
+    private static long size(Path p) {
+        try { return Files.size(p); } catch (IOException e) { return 0; }
+    }
+
+    private static long lastModified(Path p) {
+        try { return Files.getLastModifiedTime(p).toMillis(); } catch (IOException e) { return 0; }
+    }
+
+    private static void drain(MessageDigest md, ByteBuffer buf) {
+        buf.flip();
+        md.update(buf);
+        buf.clear();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
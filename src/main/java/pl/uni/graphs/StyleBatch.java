@@ -0,0 +1,88 @@
+package pl.uni.graphs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+
+//Batched visual updates for large graphs.
+//Every attribute change is an event for the viewer, so changes are buffered per element and only
+//the last value per (element, attribute) is applied, at most once per frame, and only if it differs
+//from what the element already has. Heatmaps use a fixed set of pre-declared classes (heat0..heatN-1)
+//instead of a formatted ui.style string per node.
+public class StyleBatch {
+
+    // Number of colour steps used by the heatmaps
+    public static final int HEAT_LEVELS = 32;
+
+    // ~60 frames per second
+    private static final long FRAME_NANOS = 16_000_000L;
+
+    private static final Object REMOVE = new Object();
+    private static final String[] HEAT_CLASSES = new String[HEAT_LEVELS];
+    static {
+        for (int i = 0; i < HEAT_LEVELS; i++) HEAT_CLASSES[i] = "heat" + i;
+    }
+
+    private final Map<String, Map<Element, Object>> pending = new LinkedHashMap<>();
+    private long lastFlush = System.nanoTime();
+
+    public void set(Element e, String key, Object value) {
+        pending.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(e, value);
+    }
+
+    public void remove(Element e, String key) { set(e, key, REMOVE); }
+
+    public void setClass(Element e, String cls) { set(e, "ui.class", cls); }
+
+    //Applies all buffered changes now.
+    public void flush() {
+        for (Map.Entry<String, Map<Element, Object>> byKey : pending.entrySet()) {
+            String key = byKey.getKey();
+            for (Map.Entry<Element, Object> change : byKey.getValue().entrySet()) {
+                Element e = change.getKey();
+                Object value = change.getValue();
+                if (value == REMOVE) {
+                    if (e.hasAttribute(key)) e.removeAttribute(key);
+                } else if (!Objects.equals(e.getAttribute(key), value)) {
+                    e.setAttribute(key, value);
+                }
+            }
+        }
+        pending.clear();
+        lastFlush = System.nanoTime();
+    }
+
+    //Flushes if a frame has passed since the last flush.
+    public void tick() {
+        if (System.nanoTime() - lastFlush >= FRAME_NANOS) flush();
+    }
+
+    //Animation step: tick, then sleep like Tools.pause.
+    public void pause(long ms) {
+        tick();
+        Tools.pause(ms);
+    }
+
+    //Class name for value in [lo, hi], one of HEAT_LEVELS steps.
+    public static String heatClass(double value, double lo, double hi) {
+        double t = (hi > lo) ? (value - lo) / (hi - lo) : 0.0;
+        int level = (int) Math.round(t * (HEAT_LEVELS - 1));
+        return HEAT_CLASSES[Math.max(0, Math.min(HEAT_LEVELS - 1, level))];
+    }
+
+    //Appends the heatN node classes (blue→red) to the graph's stylesheet.
+    public static void declareHeatClasses(Graph g) {
+        StringBuilder css = new StringBuilder();
+        Object current = g.getAttribute("ui.stylesheet");
+        if (current != null && current.toString().contains("node." + HEAT_CLASSES[0] + " ")) return;
+        if (current != null) css.append(current).append('\n');
+        for (int i = 0; i < HEAT_LEVELS; i++) {
+            css.append("node.").append(HEAT_CLASSES[i]).append(" { ")
+               .append(TraversalAlgorithms.heatColor(i, 0, HEAT_LEVELS - 1)).append(" }\n");
+        }
+        g.setAttribute("ui.stylesheet", css.toString());
+    }
+}
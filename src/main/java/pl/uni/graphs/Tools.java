@@ -13,6 +13,7 @@ import java.util.Locale;
 import java.util.ArrayDeque;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
 
 //Utility helpers used across Lab 2.
 public class Tools {
@@ -36,14 +37,14 @@ public class Tools {
 
     //Highlights nodes whose neighbors' cost sum exceeds a given threshold
     public static int styleByNeighborCostSum(Graph g, int threshold) {
+        CompactGraph cg = CompactGraph.of(g);
+        int[] sums = VertexEngine.sum(cg, cg.intValues(g, "cost", 0));
         int marked = 0;
-        for (Node v : g) {
-            int sum = 0;
-            for (Node nb : v.neighborNodes().toList())
-                sum += getInt(nb, "cost", 0);
-            if (sum > threshold) {
+        for (int u = 0; u < sums.length; u++) {
+            if (sums[u] > threshold) {
+                Node v = cg.node(g, u);
                 v.setAttribute("ui.style", "size: 30px; fill-color: red;");
-                v.setAttribute("ui.label", "sum=" + sum);
+                v.setAttribute("ui.label", "sum=" + sums[u]);
                 marked++;
             }
         }
@@ -111,6 +112,22 @@ public class Tools {
         return bestNode != null ? bestNode : g.getNode(0);
     }
 
+    //Same as pickNodeInLargestComponent, with the component labelling taken from the cache.
+    public static Node pickNodeInLargestComponent(Graph g, ResultCache cache) {
+        CompactGraph cg = CompactGraph.of(g);
+        if (cg.nodeCount() == 0) return g.getNode(0);
+        int[] label = cache.ints(ResultCache.fingerprint(cg), "components@2",
+                () -> PrimitiveTraversals.components(cg));
+
+        // labels follow the lowest node index, so the first largest one matches the uncached version
+        int[] size = new int[cg.nodeCount()];
+        int best = 0;
+        for (int l : label) size[l]++;
+        for (int l = 1; l < size.length; l++) if (size[l] > size[best]) best = l;
+        for (int u = 0; u < label.length; u++) if (label[u] == best) return cg.node(g, u);
+        return g.getNode(0);
+    }
+
     //Reads a DGS file from resources and returns a GraphStream Graph object.
     public static Graph readGraph(String resourcePath) {
         var url = Tools.class.getClassLoader().getResource(resourcePath);
@@ -138,6 +155,12 @@ public class Tools {
         return (g.getNodeCount() == 0) ? 0.0 : sum / g.getNodeCount();
     }
 
+    //Average degree of a snapshot, summed in parallel by the vertex engine; use it when a snapshot is already at hand.
+    public static double averageDegree(CompactGraph g) {
+        long sum = VertexEngine.total(VertexEngine.degrees(g));
+        return (g.nodeCount() == 0) ? 0.0 : (double) sum / g.nodeCount();
+    }
+
     //Sets a two-line label on a node (top/bottom text)
     public static void label(Node n, String top, String bottom) {
         n.setAttribute("ui.label", String.format(Locale.US, "%s\n%s", top, bottom));
@@ -145,10 +168,22 @@ public class Tools {
 
     //Returns edge weight based on possible attribute names.
     public static double weight(Edge e) {
+        return weight(e, 1.0);
+    }
+
+    // Like weight(e), but returns 'unparsed' when the edge has a weight key none of whose values parse
+    static double weight(Edge e, double unparsed) {
+        return weight(k -> e.hasAttribute(k) ? e.getAttribute(k) : null, unparsed);
+    }
+
+    // Same rules for attributes that are not on a graph element (lookup returns null when absent)
+    static double weight(Function<String, Object> attribute, double unparsed) {
         String[] keys = { "length", "weight", "w", "cost", "value" };
+        boolean present = false;
         for (String k : keys) {
-            if (e.hasAttribute(k)) {
-                Object v = e.getAttribute(k);
+            Object v = attribute.apply(k);
+            if (v != null) {
+                present = true;
                 if (v instanceof Number) {
                     return ((Number) v).doubleValue();
                 }
@@ -158,12 +193,13 @@ public class Tools {
                 }
             }
         }
-        return 1.0;
+        return present ? unparsed : 1.0;
     }
 
     //Highlights a shortest-path or spanning tree using 'pred' attributes.
     public static void highlightSPTree(Graph g, String edgeClass) {
-        for (Edge e : g.edges().toList()) e.removeAttribute("ui.class");
+        StyleBatch batch = new StyleBatch();
+        g.edges().forEach(e -> batch.remove(e, "ui.class"));
         for (Node n : g) {
             Object p = n.getAttribute("pred");
             Node parent = null;
@@ -171,9 +207,10 @@ public class Tools {
             else if (p != null) parent = g.getNode(String.valueOf(p));
             if (parent != null) {
                 Edge e = n.getEdgeBetween(parent);
-                if (e != null) e.setAttribute("ui.class", edgeClass);
+                if (e != null) batch.setClass(e, edgeClass);
             }
         }
+        batch.flush();
     }
 
     //Ensures the graph has xy coordinates (copies or generates grid layout).
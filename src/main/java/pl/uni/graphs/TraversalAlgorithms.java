@@ -80,21 +80,55 @@ public class TraversalAlgorithms {
         return new DR(diameter, radius);
     }
 
+    // Same as computeEccentricities, but reuses results stored for identical graph content
+    public static DR computeEccentricities(Graph g, ResultCache cache) {
+        CompactGraph cg = CompactGraph.of(g);
+        double[] ecc = cache.doubles(ResultCache.fingerprint(cg), "eccentricity/dijkstra@2",
+                () -> PrimitiveTraversals.eccentricities(cg));
+
+        double diameter = Double.NEGATIVE_INFINITY;
+        double radius   = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < ecc.length; u++) {
+            cg.node(g, u).setAttribute("ecc", ecc[u]);
+            diameter = Math.max(diameter, ecc[u]);
+            radius   = Math.min(radius,   ecc[u]);
+        }
+
+        g.setAttribute("diameter", diameter);
+        g.setAttribute("radius",   radius);
+        return new DR(diameter, radius);
+    }
+
+    // All-sources Dijkstra distances (row-major n*n, indexed like CompactGraph.of(g)), cached
+    public static double[] allSourcesDistances(Graph g, ResultCache cache) {
+        CompactGraph cg = CompactGraph.of(g);
+        return cache.doubles(ResultCache.fingerprint(cg), "all-sources/dijkstra@2",
+                () -> PrimitiveTraversals.allSources(cg));
+    }
+
     // Apply color map (blue→red) based on eccentricity
     public static void applyEccentricityHeatmap(Graph g) {
+        applyEccentricityHeatmap(g, false);
+    }
+
+    // Same, optionally labelling every node with its id and eccentricity (one formatted string per node)
+    public static void applyEccentricityHeatmap(Graph g, boolean labels) {
         double diameter = g.getNumber("diameter");
         double radius   = g.getNumber("radius");
 
+        StyleBatch.declareHeatClasses(g);
+        StyleBatch batch = new StyleBatch();
         for (Node v : g) {
             double ecc = v.getNumber("ecc");
-            v.setAttribute("ui.style", colorForEcc(ecc, radius, diameter));
-            v.setAttribute("ui.label", String.format("%s\nEcc=%.2f", v.getId(), ecc));
+            batch.setClass(v, StyleBatch.heatClass(ecc, radius, diameter));
+            if (labels) batch.set(v, "ui.label", String.format("%s\nEcc=%.2f", v.getId(), ecc));
         }
+        batch.flush();
     }
 
-    // Color helper for heatmap
-    private static String colorForEcc(double ecc, double radius, double diameter) {
-        double t = (diameter > radius) ? (ecc - radius) / (diameter - radius) : 0.0;
+    // Color helper for heatmaps: maps value in [lo, hi] to blue→red
+    static String heatColor(double value, double lo, double hi) {
+        double t = (hi > lo) ? (value - lo) / (hi - lo) : 0.0;
         if (t < 0) t = 0; if (t > 1) t = 1;
         int r = (int) Math.round(255 * t);
         int g = 0;
@@ -171,21 +205,22 @@ public class TraversalAlgorithms {
 
     // Animated BFS (visual evolution)
     public static void bfsEvolution(Graph g, Node source, int delayMs) {
+        StyleBatch batch = new StyleBatch();
         for (Node n : g) {
             n.removeAttribute("visited");
-            n.removeAttribute("ui.class");
+            batch.remove(n, "ui.class");
         }
         for (Edge e : g.edges().toList()) {
-            e.removeAttribute("ui.class");
+            batch.remove(e, "ui.class");
         }
 
         ArrayList<Node> q = new ArrayList<>();
         int head = 0;
 
         source.setAttribute("visited", true);
-        source.setAttribute("ui.class", "visited");
+        batch.setClass(source, "visited");
         q.add(source);
-        Tools.pause(delayMs);
+        batch.pause(delayMs);
 
         while (head < q.size()) {
             Node u = q.get(head++);
@@ -194,35 +229,37 @@ public class TraversalAlgorithms {
                 if (!v.hasAttribute("visited")) {
                     Edge e = u.getEdgeBetween(v);
                     if (e != null) {
-                        e.setAttribute("ui.class", "frontier");
+                        batch.setClass(e, "frontier");
                     }
 
-                    v.setAttribute("ui.class", "queued");
-                    Tools.pause(delayMs);
+                    batch.setClass(v, "queued");
+                    batch.pause(delayMs);
 
                     v.setAttribute("visited", true);
-                    v.setAttribute("ui.class", "visited");
+                    batch.setClass(v, "visited");
                     if (e != null) {
-                        e.setAttribute("ui.class", "tree");
+                        batch.setClass(e, "tree");
                     }
                     q.add(v);
 
-                    Tools.pause(delayMs);
+                    batch.pause(delayMs);
                 }
             }
         }
+        batch.flush();
     }
 
     // Animated DFS (visual evolution)
     public static void dfsEvolution(Graph g, Node source, int delayMs) {
-        for (Node n : g) { n.removeAttribute("visited"); n.removeAttribute("ui.class"); }
-        for (Edge e : g.edges().toList()) e.removeAttribute("ui.class");
+        StyleBatch batch = new StyleBatch();
+        for (Node n : g) { n.removeAttribute("visited"); batch.remove(n, "ui.class"); }
+        for (Edge e : g.edges().toList()) batch.remove(e, "ui.class");
 
         Deque<Node> stack = new ArrayDeque<>();
         source.setAttribute("visited", true);
-        source.setAttribute("ui.class", "visited");
+        batch.setClass(source, "visited");
         stack.push(source);
-        Tools.pause(delayMs);
+        batch.pause(delayMs);
 
         while (!stack.isEmpty()) {
             Node u = stack.peek();
@@ -239,93 +276,51 @@ public class TraversalAlgorithms {
             }
             if (next == null) {
                 // backtrack
-                u.setAttribute("ui.class", "backtracked");
+                batch.setClass(u, "backtracked");
                 stack.pop();
-                Tools.pause(delayMs);
+                batch.pause(delayMs);
             } else {
-                if (via != null) via.setAttribute("ui.class", "stackEdge");
-                next.setAttribute("ui.class", "stack");
-                Tools.pause(delayMs);
+                if (via != null) batch.setClass(via, "stackEdge");
+                batch.setClass(next, "stack");
+                batch.pause(delayMs);
 
                 next.setAttribute("visited", true);
-                next.setAttribute("ui.class", "visited");
-                if (via != null) via.setAttribute("ui.class", "tree");
+                batch.setClass(next, "visited");
+                if (via != null) batch.setClass(via, "tree");
                 stack.push(next);
-                Tools.pause(delayMs);
+                batch.pause(delayMs);
             }
         }
+        batch.flush();
     }
 
     // BFS tree used for Exercise 6 (returns #tree edges)
     public static int bfsTree(Graph g, Node source) {
-        for (Node n : g) { n.removeAttribute("visited"); n.removeAttribute("pred"); }
-        Deque<Node> q = new ArrayDeque<>();
-        source.setAttribute("visited", true);
-        q.add(source);
-        int treeEdges = 0;
-
-        long seed = 67890L;
-        java.util.Random rng = new java.util.Random(seed);
-
-        while (!q.isEmpty()) {
-            // zbierz całą warstwę (bieżący fron­t)
-            int levelSize = q.size();
-            List<Node> nextFrontier = new ArrayList<>();
-
-            for (int i = 0; i < levelSize; i++) {
-                Node u = q.removeFirst();
-
-                // sąsiedzi w losowej kolejności
-                List<Node> nbrs = new ArrayList<>(u.neighborNodes().toList());
-                java.util.Collections.shuffle(nbrs, rng);
-
-                for (Node v : nbrs) {
-                    if (!v.hasAttribute("visited")) {
-                        v.setAttribute("visited", true);
-                        v.setAttribute("pred", u);
-                        treeEdges++;
-                        nextFrontier.add(v); // dodaj do następnej warstwy
-                    }
-                }
-            }
-
-            // losowa permutacja całej następnej warstwy → „ziarnisty” wygląd
-            java.util.Collections.shuffle(nextFrontier, rng);
-            for (Node v : nextFrontier) q.addLast(v);
-        }
+        CompactGraph cg = CompactGraph.of(g);
+        int[] parent = new int[cg.nodeCount()];
+        int treeEdges = new RandomTrees(cg).bfsTree(source.getIndex(), 67890L, parent);
+        markTree(g, cg, source, parent);
         return treeEdges;
     }
 
     // DFS tree used for Exercise 6 (returns #tree edges)
     public static int dfsTree(Graph g, Node source) {
-        for (Node n : g) { n.removeAttribute("visited"); n.removeAttribute("pred"); }
-        Deque<Node> stack = new ArrayDeque<>();
-        source.setAttribute("visited", true);
-        stack.push(source);
-        int treeEdges = 0;
-        long seed = 12345L;
-        while (!stack.isEmpty()) {
-            Node u = stack.peek();
-            Node next = null;
-            for (Node v : shuffledNeighbors(u, seed)) {
-                if (!v.hasAttribute("visited")) { next = v; break; }
-            }
-            if (next != null) {
-                next.setAttribute("visited", true);
-                next.setAttribute("pred", u);
-                treeEdges++;
-                stack.push(next);
-            } else {
-                stack.pop();
-            }
-        }
+        CompactGraph cg = CompactGraph.of(g);
+        int[] parent = new int[cg.nodeCount()];
+        int treeEdges = new RandomTrees(cg).dfsTree(source.getIndex(), 12345L, parent);
+        markTree(g, cg, source, parent);
         return treeEdges;
     }
 
-    // Shuffle neighbors deterministically by mixing seed with node index
-    private static List<Node> shuffledNeighbors(Node u, long seed) {
-        List<Node> list = new ArrayList<>(u.neighborNodes().toList());
-        Collections.shuffle(list, new java.util.Random(seed ^ u.getIndex()));
-        return list;
+    // Copies a parent array into "visited"/"pred" attributes (read by Tools.highlightSPTree)
+    private static void markTree(Graph g, CompactGraph cg, Node source, int[] parent) {
+        for (Node n : g) { n.removeAttribute("visited"); n.removeAttribute("pred"); }
+        source.setAttribute("visited", true);
+        for (int u = 0; u < parent.length; u++) {
+            if (parent[u] < 0) continue;
+            Node v = cg.node(g, u);
+            v.setAttribute("visited", true);
+            v.setAttribute("pred", cg.node(g, parent[u]));
+        }
     }
 }
@@ -0,0 +1,106 @@
+package pl.uni.graphs;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+
+//Vertex-centric (gather-apply) neighbourhood aggregation over a CompactGraph.
+//A superstep folds the neighbours' values of every node into a new primitive array;
+//nodes are processed in parallel chunks and the inner loops do not allocate.
+public class VertexEngine {
+
+    // Nodes per parallel task; small enough to balance, large enough to amortise scheduling
+    private static final int CHUNK = 4096;
+
+    //One superstep: out[v] = combine(...combine(identity, values[n1])..., values[nk]) over neighbours of v.
+    public static int[] gather(CompactGraph g, int[] values, int identity, IntBinaryOperator combine) {
+        int[] out = new int[g.nodeCount()];
+        int[] off = g.offsets, tgt = g.targets;
+        forEachChunk(g.nodeCount(), (from, to) -> {
+            for (int v = from; v < to; v++) {
+                int acc = identity;
+                for (int p = off[v]; p < off[v + 1]; p++) acc = combine.applyAsInt(acc, values[tgt[p]]);
+                out[v] = acc;
+            }
+        });
+        return out;
+    }
+
+    //Double-valued superstep, same contract as the int version.
+    public static double[] gather(CompactGraph g, double[] values, double identity, DoubleBinaryOperator combine) {
+        double[] out = new double[g.nodeCount()];
+        gatherInto(g, values, out, identity, combine, null);
+        return out;
+    }
+
+    //Runs k supersteps: next[v] = apply(cur[v], gather over neighbours of cur).
+    //E.g. combine=max, apply=max spreads the largest value within k hops.
+    public static double[] iterate(CompactGraph g, double[] init, int k, double identity,
+                                   DoubleBinaryOperator combine, DoubleBinaryOperator apply) {
+        double[] cur = init.clone();
+        double[] next = new double[cur.length];
+        for (int step = 0; step < k; step++) {
+            gatherInto(g, cur, next, identity, combine, apply);
+            double[] t = cur; cur = next; next = t;
+        }
+        return cur;
+    }
+
+    //Sum of the neighbours' values for every node.
+    public static int[] sum(CompactGraph g, int[] values) {
+        return gather(g, values, 0, Integer::sum);
+    }
+
+    public static double[] min(CompactGraph g, double[] values) {
+        return gather(g, values, Double.POSITIVE_INFINITY, Math::min);
+    }
+
+    public static double[] max(CompactGraph g, double[] values) {
+        return gather(g, values, Double.NEGATIVE_INFINITY, Math::max);
+    }
+
+    //Number of neighbours with a non-zero flag.
+    public static int[] count(CompactGraph g, int[] flags) {
+        return gather(g, flags, 0, (acc, f) -> f != 0 ? acc + 1 : acc);
+    }
+
+    //Degree of every node.
+    public static int[] degrees(CompactGraph g) {
+        int[] out = new int[g.nodeCount()];
+        forEachChunk(out.length, (from, to) -> {
+            for (int v = from; v < to; v++) out[v] = g.degree(v);
+        });
+        return out;
+    }
+
+    //Parallel sum of a node-value array.
+    public static long total(int[] values) {
+        return IntStream.range(0, chunks(values.length)).parallel().mapToLong(c -> {
+            long s = 0;
+            for (int v = c * CHUNK, end = Math.min(values.length, v + CHUNK); v < end; v++) s += values[v];
+            return s;
+        }).sum();
+    }
+
+    // Shared superstep body; apply == null means out[v] is the gathered value itself
+    private static void gatherInto(CompactGraph g, double[] values, double[] out, double identity,
+                                   DoubleBinaryOperator combine, DoubleBinaryOperator apply) {
+        int[] off = g.offsets, tgt = g.targets;
+        forEachChunk(g.nodeCount(), (from, to) -> {
+            for (int v = from; v < to; v++) {
+                double acc = identity;
+                for (int p = off[v]; p < off[v + 1]; p++) acc = combine.applyAsDouble(acc, values[tgt[p]]);
+                out[v] = (apply == null) ? acc : apply.applyAsDouble(values[v], acc);
+            }
+        });
+    }
+
+    private interface Range { void run(int from, int to); }
+
+    private static void forEachChunk(int n, Range body) {
+        IntStream.range(0, chunks(n)).parallel()
+                .forEach(c -> body.run(c * CHUNK, Math.min(n, (c + 1) * CHUNK)));
+    }
+
+    private static int chunks(int n) { return (n + CHUNK - 1) / CHUNK; }
+}